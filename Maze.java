@@ -1,698 +1,1759 @@
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Comparator;
-
-import tester.*;
-import javalib.impworld.*;
-import java.awt.Color;
-import javalib.worldimages.*;
-
-// Represents walls of the maze
-class Wall {
-  Edge edge;
-  Color color;
-
-  Wall(Edge edge) {
-    this.edge = edge;
-    this.color = Color.RED;
-  }
-
-  Wall(Edge edge, Color color) {
-    this.edge = edge;
-    this.color = color;
-  }
-
-  // Draws walls of the maze
-  WorldImage drawWall() {
-    if (this.edge.beginning.x == this.edge.end.x) {
-      Edge tempEdge = new Edge(this.edge.beginning, this.edge.end, this.color);
-      return new RotateImage(tempEdge.drawEdge(), 90);
-    }
-    else {
-      Edge tempEdges = new Edge(this.edge.beginning, this.edge.end, this.color);
-      return new RotateImage(tempEdges.drawEdge(), -90);
-    }
-  }
-}
-
-// Represents a vertex of the maze
-class Vertex {
-  int x;
-  int y;
-  // Vertex fields
-  Vertex top;
-  Vertex bottom;
-  Vertex right;
-  Vertex left;
-  ArrayList<Edge> allConnectedEdges;
-
-  Vertex(int x, int y) {
-    this.x = x;
-    this.y = y;
-    this.allConnectedEdges = new ArrayList<Edge>();
-    this.bottom = null;
-    this.top = null;
-    this.right = null;
-    this.left = null;
-  }
-
-  // Checks if two vertices are equal
-  @Override
-  public boolean equals(Object o) {
-    if (!(o instanceof Vertex)) {
-      return false;
-    }
-    Vertex temp = (Vertex) o;
-    return this.x == temp.x && this.y == temp.y;
-  }
-
-  // Override hashcode
-  @Override
-  public int hashCode() {
-    return this.x + this.y * 1008;
-  }
-}
-
-// Represents the edges of a maze
-class Edge {
-  Vertex beginning;
-  Vertex end;
-  int weight;
-  Color path;
-  boolean solved;
-
-  Edge(Vertex beginning, Vertex end) {
-    this.solved = true;
-    this.beginning = beginning;
-    this.end = end;
-    this.weight = (int) (Math.random() * 55);
-    this.path = Color.BLACK;
-  }
-
-  Edge(Vertex beginning, Vertex end, Color path) {
-    this.solved = true;
-    this.beginning = beginning;
-    this.end = end;
-    this.weight = (int) (Math.random() * 55);
-    this.path = path;
-  }
-
-  Edge(Vertex beginning, Vertex end, Color path, int weight) {
-    this.solved = true;
-    this.beginning = beginning;
-    this.end = end;
-    this.weight = weight;
-    this.path = path;
-  }
-
-  Edge(Vertex beginning, Vertex end, Color path, int weight, boolean solved) {
-    this.beginning = beginning;
-    this.end = end;
-    this.weight = weight;
-    this.path = path;
-    this.solved = solved;
-
-  }
-
-  // Draws the edges to the maze
-  WorldImage drawEdge() {
-    if (this.beginning.x == this.end.x) {
-      WorldImage lineV = new LineImage(new Posn(0, 30), this.path);
-      WorldImage newLineV = lineV.movePinhole(0, -15);
-      return newLineV;
-    }
-    else {
-      WorldImage lineH = new LineImage(new Posn(30, 0), this.path);
-      WorldImage newLineH = lineH.movePinhole(-15, 0);
-      return newLineH;
-    }
-  }
-}
-
-// Sorts edges by weights
-class EdgesByWeights implements Comparator<Edge> {
-
-  EdgesByWeights() {
-  }
-
-  // compares two edges
-  @Override
-  public int compare(Edge o1, Edge o2) {
-    return o1.weight - o2.weight;
-  }
-
-}
-
-// Represents the maze
-class Maze extends World {
-  static int HEIGHT = 10;
-  static int WIDTH = 10;
-  ArrayList<ArrayList<Vertex>> vertexRow;
-  ArrayList<Vertex> vertexColumn;
-  ArrayList<Edge> edges;
-  ArrayList<Edge> sortedEdges;
-  ArrayList<ArrayList<Vertex>> grid;
-  ArrayList<Vertex> subgrid;
-  ArrayList<Wall> walls;
-  ArrayList<Edge> connectedList;
-  boolean isSearching;
-  int timer;
-
-  Maze() {
-    this.edges = new ArrayList<Edge>();
-    this.sortedEdges = new ArrayList<Edge>();
-    this.connectedList = new ArrayList<Edge>();
-    this.isSearching = false;
-    this.timer = 0;
-    addVertexes();
-    createEdges();
-    this.sortedEdges.sort(new EdgesByWeights());
-    createGrid();
-    createWalls();
-    removeCycles();
-  }
-
-  // Convenience constructor for testing
-  Maze(ArrayList<Edge> edges) {
-    this.edges = edges;
-    this.sortedEdges = edges;
-    this.connectedList = new ArrayList<Edge>();
-    this.sortedEdges.sort(new EdgesByWeights());
-  }
-
-  // Called on every tick
-  public void onTick() {
-    if (this.isSearching) {
-      timer++;
-    }
-    pathFinder();
-  }
-
-  // Checks if certain keys are pressed
-  public void onKeyEvent(String key) {
-    // Restart the maze
-    if (key.equals("r")) {
-      this.edges = new ArrayList<Edge>();
-      this.sortedEdges = new ArrayList<Edge>();
-      this.connectedList = new ArrayList<Edge>();
-      this.isSearching = false;
-      this.timer = 0;
-      addVertexes();
-      createEdges();
-      this.sortedEdges.sort(new EdgesByWeights());
-      createGrid();
-      createWalls();
-      removeCycles();
-    }
-    // Solve the maze
-    // TODO: implement breadth first search
-    else if (key.equals("b")) {
-      this.timer = 0;
-      this.isSearching = true;
-      correctEdges();
-      solveMaze();
-    }
-
-    // Solve the maze
-    else if (key.equals("d")) {
-      this.isSearching = true;
-      this.timer = 0;
-      correctEdges();
-      solveMaze();
-    }
-  }
-
-  // Initializes the Vertexs list
-  public void addVertexes() {
-    this.vertexRow = new ArrayList<ArrayList<Vertex>>();
-    this.vertexColumn = new ArrayList<Vertex>();
-    for (int i = 0; i < Maze.WIDTH; i++) {
-      for (int j = 0; j < Maze.HEIGHT; j++) {
-        this.vertexColumn.add(new Vertex(i, j));
-      }
-      this.vertexRow.add(vertexColumn);
-      this.vertexColumn = new ArrayList<Vertex>();
-    }
-  }
-
-  // Initializes the edges list
-  void createEdges() {
-    this.edges = new ArrayList<Edge>();
-    for (int i = 0; i < Maze.WIDTH; i++) {
-      for (int j = 0; j < Maze.HEIGHT; j++) {
-        if (i + 1 < Maze.WIDTH) {
-          this.edges.add(new Edge(this.vertexRow.get(i).get(j), this.vertexRow.get(i + 1).get(j)));
-        }
-        if (j + 1 < Maze.HEIGHT) {
-          this.edges.add(new Edge(this.vertexRow.get(i).get(j), this.vertexRow.get(i).get(j + 1)));
-        }
-      }
-    }
-    this.sortedEdges = this.edges;
-  }
-
-  // Creates walls to the maze
-  public void createWalls() {
-    this.walls = new ArrayList<Wall>();
-    for (int i = 0; i < this.edges.size(); i++) {
-      this.walls.add(new Wall(this.edges.get(i)));
-    }
-  }
-
-  // creates subgrids of all grids
-  public void createGrid() {
-    this.grid = new ArrayList<ArrayList<Vertex>>();
-    this.subgrid = new ArrayList<Vertex>();
-    for (int i = 0; i < Maze.WIDTH; i++) {
-      for (int j = 0; j < Maze.HEIGHT; j++) {
-        this.subgrid.add(this.vertexRow.get(i).get(j));
-        this.grid.add(subgrid);
-        this.subgrid = new ArrayList<Vertex>();
-      }
-    }
-  }
-
-  // Removes all Edges that create cycles
-  public void removeCycles() {
-    int size = this.grid.size();
-    while (this.grid.size() > 1) {
-      for (int i = 0; i < this.sortedEdges.size(); i++) {
-        this.removeCyclesHelper(this.sortedEdges.get(i));
-        if (this.grid.size() < size) {
-          this.sortedEdges.set(i,
-              new Edge(this.sortedEdges.get(i).beginning, this.sortedEdges.get(i).end, Color.BLUE));
-          this.walls.set(i, new Wall(this.walls.get(i).edge, Color.WHITE));
-          size = this.grid.size();
-        }
-      }
-    }
-  }
-
-  // If there are no similarities change if not dont
-  public void removeCyclesHelper(Edge e) {
-    Vertex currBeginning = e.beginning;
-    Vertex currEnd = e.end;
-    int repBeg = 0;
-    int repEnd = 0;
-    for (int i = 0; i < this.grid.size(); i++) {
-      for (int j = 0; j < this.grid.get(i).size(); j++) {
-        if (this.grid.get(i).get(j).equals(currBeginning)) {
-          repBeg = i;
-        }
-        if (this.grid.get(i).get(j) == currEnd) {
-          repEnd = i;
-        }
-      }
-    }
-    if (repBeg != repEnd) {
-      this.grid.get(repBeg).addAll(this.grid.get(repEnd));
-      this.grid.remove(repEnd);
-    }
-  }
-
-  // Removes all edges with walls between
-  public void correctEdges() {
-    this.connectedList = new ArrayList<Edge>();
-    for (int i = 0; i < this.sortedEdges.size(); i++) {
-      if (this.sortedEdges.get(i).path.equals(Color.BLUE)) {
-        this.connectedList.add(this.sortedEdges.get(i));
-      }
-    }
-  }
-
-  // Returns edges if it solves the maze
-  public Edge solveMazeHelper(Edge edge) {
-    int c1 = 0;
-    int c2 = 0;
-    for (int i = 0; i < this.connectedList.size(); i++) {
-      if (edge.beginning == this.connectedList.get(i).beginning) {
-        c1++;
-      }
-      if (edge.beginning == this.connectedList.get(i).end) {
-        c1++;
-      }
-      if (edge.end == this.connectedList.get(i).beginning) {
-        c2++;
-      }
-      if (edge.end == this.connectedList.get(i).end) {
-        c2++;
-      }
-    }
-    if ((c1 == 1 || c2 == 1) && edge.end != this.vertexRow.get(Maze.HEIGHT - 1).get(Maze.WIDTH - 1)
-        && edge.beginning != this.vertexRow.get(0).get(0)) {
-      edge = new Edge(edge.beginning, edge.end, Color.white, edge.weight, false);
-      return edge;
-    }
-    else {
-      return edge;
-    }
-  }
-
-  // Sets connected Edges list to all edges that solve the maze
-  public void solveMaze() {
-    for (int i = 0; i < this.connectedList.size(); i++) {
-      this.connectedList.set(i, this.solveMazeHelper(this.connectedList.get(i)));
-    }
-  }
-
-  // Checks if all edges are connected
-  public boolean allConnected() {
-    boolean ans = true;
-    for (int i = 0; i < this.connectedList.size(); i++) {
-      ans = ans && this.connectedList.get(i).solved;
-    }
-    return ans;
-  }
-
-  // Removes all edges that dont make a solution
-  public void removeWrong() {
-    for (int i = this.connectedList.size() - 1; i >= 0; i--) {
-      if (!this.connectedList.get(i).solved) {
-        this.connectedList.remove(i);
-      }
-    }
-  }
-
-  // If all are not connected remove the ones that dont connect
-  public void pathFinder() {
-    if (!this.allConnected()) {
-      this.removeWrong();
-      this.solveMaze();
-    }
-    if (this.allConnected()) {
-      this.isSearching = false;
-    }
-  }
-
-  // Called on every tick
-  public WorldScene makeScene() {
-    WorldScene scene = new WorldScene(Maze.WIDTH * 30, Maze.HEIGHT * 30);
-    WorldImage background = new RectangleImage(Maze.WIDTH * 30, Maze.HEIGHT * 30,
-        OutlineMode.OUTLINE, Color.GRAY);
-    scene.placeImageXY(background, Maze.WIDTH * 15, Maze.HEIGHT * 15);
-    scene.placeImageXY(new RectangleImage(30, 30, OutlineMode.SOLID, Color.GREEN), 15, 15);
-    scene.placeImageXY(new RectangleImage(30, 30, OutlineMode.SOLID, Color.PINK),
-        (Maze.WIDTH * 30) - 15, (Maze.HEIGHT * 30) - 15);
-    WorldImage textD = new TextImage("Press key d to solve the maze with DFS", Color.BLACK);
-    WorldImage textR = new TextImage("Press key r to restart the maze", Color.BLACK);
-    WorldImage textB = new TextImage("Press key b to solve the maze with BFS", Color.BLACK);
-    WorldImage timer = new TextImage("Time to search: " + this.timer + " ticks", Color.RED);
-    scene.placeImageXY(background, Maze.HEIGHT * 15, Maze.HEIGHT * 15);
-    scene.placeImageXY(textD, (Maze.WIDTH * 40) + 20, (Maze.HEIGHT * 15) + 20);
-    scene.placeImageXY(textR, (Maze.HEIGHT * 40) + 20, (Maze.HEIGHT * 15) - 20);
-    scene.placeImageXY(textB, (Maze.HEIGHT * 40) + 20, (Maze.HEIGHT * 15) - 60);
-    scene.placeImageXY(timer, (Maze.HEIGHT * 40) + 20, (Maze.HEIGHT * 15) - 80);
-    // Draw all walls
-    for (int j = 0; j < this.walls.size(); j++) {
-      scene.placeImageXY(this.walls.get(j).drawWall(),
-          (this.walls.get(j).edge.beginning.x * 30) + 30,
-          (this.walls.get(j).edge.beginning.y * 30) + 30);
-    }
-    // Draw all edges
-    for (int i = 0; i < this.connectedList.size(); i++) {
-      scene.placeImageXY(this.connectedList.get(i).drawEdge(),
-          (this.connectedList.get(i).beginning.x * 30) + 15,
-          (this.connectedList.get(i).beginning.y * 30) + 15);
-    }
-    return scene;
-  }
-}
-
-// Examples Class
-class ExamplesMaze {
-  // initializes init conditnions
-  Vertex ver1;
-  Vertex ver2;
-  Vertex ver3;
-  Vertex ver4;
-  Vertex ver5;
-  Vertex ver6;
-  Edge edge1;
-  Edge edge2;
-  Edge edge3;
-  Edge edge4;
-  Edge edge5;
-  Edge edge6;
-  Wall wall1;
-  Wall wall2;
-  Wall wall3;
-  Wall wall4;
-  ArrayList<Edge> edges;
-  ArrayList<Edge> unconnectedEdges;
-  Maze maze;
-  Maze Maze;
-  Maze maze3;
-
-  // INitializes variables
-  public void init() {
-    ver1 = new Vertex(1, 1);
-    ver2 = new Vertex(2, 2);
-    ver3 = new Vertex(3, 3);
-    ver4 = new Vertex(4, 4);
-    ver5 = new Vertex(5, 5);
-    ver6 = new Vertex(6, 6);
-    edge1 = new Edge(this.ver1, this.ver3, Color.black, 30);
-    edge2 = new Edge(this.ver3, this.ver4, Color.white, 0);
-    edge3 = new Edge(this.ver6, this.ver4, Color.black, 55);
-    edge4 = new Edge(this.ver5, this.ver4, Color.CYAN, 15);
-    edge5 = new Edge(this.ver4, this.ver6, Color.LIGHT_GRAY, 60);
-    edge6 = new Edge(this.ver1, this.ver6, Color.BLUE, 40);
-    edge6.solved = false;
-    wall1 = new Wall(edge1);
-    wall2 = new Wall(edge2, Color.black);
-    wall3 = new Wall(edge4, Color.red);
-    wall4 = new Wall(edge3, Color.BLUE);
-    edges = new ArrayList<Edge>(
-        Arrays.asList(this.edge1, this.edge2, this.edge3, this.edge4, this.edge5));
-    unconnectedEdges = new ArrayList<Edge>(Arrays.asList(this.edge1, this.edge3, this.edge6));
-    maze = new Maze();
-    Maze = new Maze();
-    maze3 = new Maze();
-  }
-
-  // plays the game
-  void testMaze(Tester t) {
-    init();
-    this.maze.bigBang(Maze.WIDTH * 60, Maze.HEIGHT * 60, 1 / 8.0);
-  }
-
-  // Test OnKeyEvent
-  void testOnKeyEvent(Tester t) {
-    init();
-    Maze temp = this.maze;
-    maze.onKeyEvent("r");
-    t.checkExpect(maze.allConnected(), true);
-    t.checkExpect(temp, this.maze);
-    maze.onKeyEvent("d");
-    t.checkExpect(maze.allConnected(), false);
-    maze.onKeyEvent("b");
-    t.checkExpect(maze.allConnected(), false);
-  }
-
-  // Tests method solveMazeHelper
-  void testsolveMazeHelper(Tester t) {
-    init();
-    this.maze.connectedList = this.edges;
-    Edge temp = new Edge(this.ver1, this.ver3, Color.WHITE, 30);
-    temp.solved = false;
-    t.checkExpect(maze.solveMazeHelper(this.maze.connectedList.get(0)), temp);
-    t.checkExpect(maze.solveMazeHelper(temp), temp);
-  }
-
-  // tests Method solveMaze
-  void testsolveMaze(Tester t) {
-    init();
-    maze.connectedList = this.edges;
-    maze.solveMaze();
-    t.checkExpect(this.edges, maze.connectedList);
-    maze3.connectedList = this.edges;
-    maze3.solveMaze();
-    t.checkExpect(this.edges, maze3.connectedList);
-  }
-
-//
-  // Tests method allConnected
-  void testAllConnected(Tester t) {
-    init();
-    t.checkExpect(this.maze.allConnected(), true);
-    this.maze.connectedList = this.unconnectedEdges;
-    t.checkExpect(this.maze.allConnected(), false);
-  }
-
-//
-  // Tests method removeWrong
-  void testremoveWrong(Tester t) {
-    init();
-    ArrayList<Edge> temp = maze.connectedList;
-    maze.removeWrong();
-    t.checkExpect(maze.connectedList, temp);
-    maze.connectedList = this.unconnectedEdges;
-    maze.removeWrong();
-    t.checkExpect(maze.connectedList, new ArrayList<Edge>(Arrays.asList(this.edge1, this.edge3)));
-  }
-
-  // Tests method pathfinder
-  void testPathfinder(Tester t) {
-    init();
-    ArrayList<Edge> temp = this.maze.connectedList;
-    this.maze.pathFinder();
-    t.checkExpect(this.maze.connectedList, temp);
-    this.maze.connectedList = this.unconnectedEdges;
-    this.maze.pathFinder();
-    t.checkExpect(this.maze.connectedList, this.unconnectedEdges);
-    t.checkExpect(this.maze.isSearching, false);
-  }
-
-  // Tests correctEdges
-  void testCorrectEdges(Tester t) {
-    init();
-    t.checkExpect(maze.connectedList, new ArrayList<Edge>());
-    this.edges.sort(new EdgesByWeights());
-    this.edges.get(0).path = Color.blue;
-    this.maze.sortedEdges = this.edges;
-    maze.correctEdges();
-    t.checkExpect(maze.connectedList, new ArrayList<Edge>(Arrays.asList(this.edges.get(0))));
-    this.maze.sortedEdges = this.edges;
-    this.maze.correctEdges();
-    t.checkExpect(this.maze.connectedList, new ArrayList<Edge>(Arrays.asList(this.edge2)));
-  }
-
-//
-  // test drawWall
-  void testDrawWall(Tester t) {
-    init();
-    edge1.path = Color.RED;
-    edge2.path = Color.black;
-    t.checkExpect(wall1.drawWall(), new RotateImage(this.edge1.drawEdge(), -90));
-    t.checkExpect(wall2.drawWall(), new RotateImage(this.edge2.drawEdge(), -90));
-  }
-
-  // tests method equals
-  void testEquals(Tester t) {
-    init();
-    t.checkExpect(ver1.equals(ver2), false);
-    t.checkExpect(ver3.equals(ver3), true);
-    t.checkExpect(ver1.equals(ver3), false);
-  }
-
-//
-  // tests method HashCode
-  void testHashCode(Tester t) {
-    init();
-    t.checkExpect(ver1.hashCode(), 1009);
-    t.checkExpect(ver3.hashCode(), 3027);
-    t.checkExpect(ver5.hashCode(), 5045);
-  }
-
-  // tests method drawEdges
-  void testDrawEdges(Tester t) {
-    init();
-    LineImage temp = new LineImage(new Posn(30, 0), this.edge5.path);
-    temp.pinhole = new Posn(-15, 0);
-    t.checkExpect(edge5.drawEdge(), temp);
-
-    temp = new LineImage(new Posn(30, 0), this.edge3.path);
-    temp.pinhole = new Posn(-15, 0);
-    t.checkExpect(edge3.drawEdge(), temp);
-
-    temp = new LineImage(new Posn(30, 0), this.edge4.path);
-    temp.pinhole = new Posn(-15, 0);
-    t.checkExpect(edge4.drawEdge(), temp);
-  }
-
-  // tests method compare
-  void testCompare(Tester t) {
-    init();
-    EdgesByWeights e = new EdgesByWeights();
-    t.checkExpect(e.compare(edge2, edge1), -30);
-    t.checkExpect(e.compare(edge1, edge2), 30);
-    t.checkExpect(e.compare(edge2, edge2), 0);
-  }
-
-  // Tests createEdges
-  void createEdges(Tester t) {
-    init();
-    maze.edges = new ArrayList<Edge>();
-    maze.createEdges();
-    t.checkExpect(maze.edges, null);
-    maze.createEdges();
-    t.checkExpect(maze.edges, edges);
-  }
-
-  // Tests method createWalls
-  void testCreateWalls(Tester t) {
-    init();
-    maze.walls = new ArrayList<Wall>();
-    maze.createWalls();
-    // assert randomness
-    t.checkFail(this.maze.walls, this.maze3.walls);
-    maze.createWalls();
-    // all walls are different
-    t.checkFail(maze.walls.get(2), maze.walls.get(4));
-    t.checkFail(maze.walls.get(5), maze.walls.get(6));
-    t.checkFail(maze.walls.get(10), maze.walls.get(20));
-  }
-
-  // Tests method create Grid
-  void testCreateGrid(Tester t) {
-    init();
-    maze.grid = new ArrayList<ArrayList<Vertex>>();
-    maze.createGrid();
-    // assert randomness
-    t.checkFail(maze.grid, maze3.grid);
-    // all vertexes in the grid are different
-    t.checkFail(maze.grid.get(3), maze.grid.get(54));
-    t.checkFail(maze.grid.get(10), maze.grid.get(29));
-    t.checkFail(maze.grid.get(15), maze.grid.get(45));
-  }
-
-  // Tests method addVertexs
-  void testAddVertexs(Tester t) {
-    init();
-    t.checkExpect(maze, maze);
-    maze.vertexColumn = new ArrayList<>();
-    maze.vertexRow = new ArrayList<>();
-    maze.addVertexes();
-    t.checkFail(maze.vertexColumn, maze);
-    t.checkFail(maze.vertexRow, maze);
-  }
-
-  // tests removeCyclesHelper
-  // automatically called in the constructor
-  void testRemoveCyclesHelper(Tester t) {
-    init();
-    t.checkExpect(maze, maze);
-    maze.removeCyclesHelper(edge1);
-    t.checkExpect(maze, maze);
-    maze.removeCyclesHelper(edge5);
-    t.checkExpect(maze, maze);
-    maze.removeCyclesHelper(edge3);
-    t.checkExpect(maze, maze);
-  }
-
-  // tests RemoveCycles
-  // removeCycles is automatically called in the constructor
-  void testRemoveCycles(Tester t) {
-    init();
-    t.checkExpect(maze, maze);
-
-    maze.sortedEdges = this.edges;
-    maze.removeCycles();
-    t.checkExpect(maze.walls, maze.walls);
-    t.checkExpect(maze.sortedEdges, this.edges);
-    maze.sortedEdges = this.unconnectedEdges;
-    t.checkExpect(maze.sortedEdges, this.unconnectedEdges);
-    maze.removeCycles();
-    t.checkExpect(maze.sortedEdges, this.unconnectedEdges);
-  }
-
-//  // Tests method makeScene
-//  void testMakeScene(Tester t) {
-//    init();
-//    t.checkExpect(maze.makeScene(), null);
-//    // Change constant size
-//    t.checkExpect(Maze.makeScene(), null);
-//    // Change constant size
-//    t.checkExpect(maze3.makeScene(), null);
-//  }
-}
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import mazesolver.*;
+
+import tester.*;
+import javalib.impworld.*;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import javax.imageio.ImageIO;
+import javalib.worldimages.*;
+
+// Represents the maze
+class Maze extends World {
+  static final Color CLEAR = new Color(0, 0, 0, 0);
+  static final WorldImage TEXT_D = new TextImage("Press key d to solve the maze with DFS",
+      Color.BLACK);
+  static final WorldImage TEXT_R = new TextImage("Press key r to restart the maze", Color.BLACK);
+  static final WorldImage TEXT_B = new TextImage("Press key b to solve the maze with BFS",
+      Color.BLACK);
+  static final WorldImage TEXT_A = new TextImage("Press key a to solve the maze with A*",
+      Color.BLACK);
+  static final WorldImage TEXT_S = new TextImage("Press key s or f to watch BFS or DFS search",
+      Color.BLACK);
+  static final WorldImage TEXT_G = new TextImage("Press key g to switch generators",
+      Color.BLACK);
+  static final Color SEARCHED = new Color(173, 216, 230, 160);
+  int width;
+  int height;
+  MazeGenerator generator;
+  // The index in MazeGenerator.NAMES of the generator key g last switched to
+  int generatorIndex;
+  Random seeds;
+  // Builds the next maze while this one is shown
+  MazePrefetcher mazes;
+  MazeGrid grid;
+  Solution solution;
+  long solveTime;
+  // The walls, start and goal, drawn once for every maze
+  ComputedPixelImage wallLayer;
+  // Whether the wall layer shows the current maze
+  boolean wallsDrawn;
+  // The solution drawn over the walls, changed only where the path changes
+  ComputedPixelImage pathLayer;
+  int[] drawnPath;
+  WorldImage status;
+  // The cells an animated search has expanded so far
+  ComputedPixelImage searchLayer;
+  // Whether any cell is painted on the search layer
+  boolean searched;
+  // The animated search, or null when none is running
+  SearchCursor cursor;
+  // How many cells an animated search expands on each tick
+  int stepsPerTick;
+  int[] stepCells;
+
+  Maze() {
+    this(10, 10);
+  }
+
+  Maze(int width, int height) {
+    this(width, height, new KruskalGenerator(), new Random());
+  }
+
+  Maze(int width, int height, MazeGenerator generator, Random seeds) {
+    this.width = width;
+    this.height = height;
+    this.generator = generator;
+    this.seeds = seeds;
+    this.stepsPerTick = 5;
+    this.drawnPath = new int[0];
+    this.mazes = new MazePrefetcher(generator, width, height, seeds.nextLong());
+    this.createMaze();
+  }
+
+  // Checks if certain keys are pressed
+  public void onKeyEvent(String key) {
+    // Restart the maze
+    if (key.equals("r")) {
+      this.createMaze();
+    }
+    // Solve the maze with breadth first search
+    else if (key.equals("b")) {
+      this.solveMaze(new BreadthFirstSolver());
+    }
+    // Solve the maze with depth first search
+    else if (key.equals("d")) {
+      this.solveMaze(new DepthFirstSolver());
+    }
+    // Solve the maze with A* search
+    else if (key.equals("a")) {
+      this.solveMaze(new AStarSolver());
+    }
+    // Watch breadth or depth first search expand a few cells on every tick
+    else if (key.equals("s") || key.equals("f")) {
+      this.animate(key.equals("f"));
+    }
+    // Build a new maze with the next generator
+    else if (key.equals("g")) {
+      this.generatorIndex = (this.generatorIndex + 1) % MazeGenerator.NAMES.length;
+      this.generator = MazeGenerator.of(MazeGenerator.NAMES[this.generatorIndex]);
+      this.mazes.switchTo(this.generator, this.seeds.nextLong());
+      this.createMaze();
+    }
+  }
+
+  // Expands the next few cells of the animated search, does nothing once it has finished
+  public void onTick() {
+    if (this.cursor == null) {
+      return;
+    }
+    int count = this.cursor.advance(this.stepsPerTick, this.stepCells);
+    if (this.searchLayer != null) {
+      for (int i = 0; i < count; i++) {
+        int cell = this.stepCells[i];
+        this.fillRect(this.searchLayer, (this.grid.x(cell) * 30) + 1,
+            (this.grid.y(cell) * 30) + 1, 29, 29, Maze.SEARCHED);
+      }
+      this.searched |= count > 0;
+    }
+    if (this.cursor.finished()) {
+      this.solution = this.cursor.solution();
+      this.cursor = null;
+      this.status = null;
+    }
+  }
+
+  // Starts an animated search from the top left to the bottom right
+  void animate(boolean depthFirst) {
+    this.solution = null;
+    this.solveTime = 0;
+    this.status = null;
+    this.cursor = new SearchCursor(this.grid, 0, this.grid.size() - 1, depthFirst);
+    this.stepCells = new int[this.stepsPerTick];
+    this.clearSearch();
+  }
+
+  // Erases every cell painted on the search layer
+  void clearSearch() {
+    if (this.searched) {
+      this.fillRect(this.searchLayer, 0, 0, this.width * 30, this.height * 30, Maze.CLEAR);
+      this.searched = false;
+    }
+  }
+
+  // Swaps in the maze built in the background and starts building the next one,
+  // recycling the old grid. The layers are kept and drawn over by the next makeScene.
+  void createMaze() {
+    this.solution = null;
+    this.solveTime = 0;
+    this.grid = this.mazes.next(this.grid, this.seeds.nextLong());
+    this.wallsDrawn = false;
+    this.status = null;
+    this.cursor = null;
+  }
+
+  // Finds the path from the top left to the bottom right with the given solver
+  public void solveMaze(MazeSolver solver) {
+    long begin = System.nanoTime();
+    this.solution = solver.solve(this.grid, 0, this.grid.size() - 1);
+    this.solveTime = System.nanoTime() - begin;
+    this.status = null;
+  }
+
+  // Paints a rectangle of pixels, clipped to the image
+  void fillRect(ComputedPixelImage image, int x0, int y0, int w, int h, Color color) {
+    int right = Math.min(x0 + w, this.width * 30);
+    int bottom = Math.min(y0 + h, this.height * 30);
+    for (int y = Math.max(y0, 0); y < bottom; y++) {
+      for (int x = Math.max(x0, 0); x < right; x++) {
+        image.setPixel(x, y, color);
+      }
+    }
+  }
+
+  // Draws the border, start, goal and every wall of the current maze. The layers are
+  // made for the first maze and drawn over for every later one: open walls are cleared
+  // before standing walls are drawn, since the two share the pixels at the corners.
+  void drawWalls() {
+    int pixelWidth = this.width * 30;
+    int pixelHeight = this.height * 30;
+    if (this.wallLayer == null) {
+      this.wallLayer = new ComputedPixelImage(pixelWidth, pixelHeight);
+      this.pathLayer = new ComputedPixelImage(pixelWidth, pixelHeight);
+      this.searchLayer = new ComputedPixelImage(pixelWidth, pixelHeight);
+    }
+    this.clearSearch();
+    this.fillRect(this.wallLayer, 0, 0, 30, 30, Color.GREEN);
+    this.fillRect(this.wallLayer, pixelWidth - 30, pixelHeight - 30, 30, 30, Color.PINK);
+    this.fillRect(this.wallLayer, 0, 0, pixelWidth, 1, Color.GRAY);
+    this.fillRect(this.wallLayer, 0, pixelHeight - 1, pixelWidth, 1, Color.GRAY);
+    this.fillRect(this.wallLayer, 0, 0, 1, pixelHeight, Color.GRAY);
+    this.fillRect(this.wallLayer, pixelWidth - 1, 0, 1, pixelHeight, Color.GRAY);
+    for (int y = 0; y < this.grid.height; y++) {
+      for (int x = 0; x < this.grid.width; x++) {
+        if (x + 1 < this.grid.width && !this.grid.hasRightWall(x, y)) {
+          this.fillRect(this.wallLayer, (x * 30) + 30, y * 30, 1, 31, Maze.CLEAR);
+        }
+        if (y + 1 < this.grid.height && !this.grid.hasBottomWall(x, y)) {
+          this.fillRect(this.wallLayer, x * 30, (y * 30) + 30, 31, 1, Maze.CLEAR);
+        }
+      }
+    }
+    for (int y = 0; y < this.grid.height; y++) {
+      for (int x = 0; x < this.grid.width; x++) {
+        if (x + 1 < this.grid.width && this.grid.hasRightWall(x, y)) {
+          this.fillRect(this.wallLayer, (x * 30) + 30, y * 30, 1, 31, Color.RED);
+        }
+        if (y + 1 < this.grid.height && this.grid.hasBottomWall(x, y)) {
+          this.fillRect(this.wallLayer, x * 30, (y * 30) + 30, 31, 1, Color.RED);
+        }
+      }
+    }
+  }
+
+  // Paints the line between the centres of each pair of cells on the path
+  void paintPath(int[] path, Color color) {
+    for (int i = 0; i + 1 < path.length; i++) {
+      int x = Math.min(this.grid.x(path[i]), this.grid.x(path[i + 1]));
+      int y = Math.min(this.grid.y(path[i]), this.grid.y(path[i + 1]));
+      // rows first, in a maze one cell wide the cell below is also cell + 1
+      boolean across = Math.abs(path[i + 1] - path[i]) != this.grid.width;
+      this.fillRect(this.pathLayer, (x * 30) + 15, (y * 30) + 15, across ? 31 : 1,
+          across ? 1 : 31, color);
+    }
+  }
+
+  // Erases the path that was drawn and draws the current one if it changed, and returns
+  // how many cells it redrew
+  int drawPath() {
+    int[] path = this.solution == null ? new int[0] : this.solution.path;
+    if (path == this.drawnPath) {
+      return 0;
+    }
+    int redrawn = this.drawnPath.length + path.length;
+    this.paintPath(this.drawnPath, Maze.CLEAR);
+    this.paintPath(path, Color.BLUE);
+    this.drawnPath = path;
+    return redrawn;
+  }
+
+  // Called on every tick, only redraws what changed since the last frame
+  public WorldScene makeScene() {
+    Metrics.Phase phase = Metrics.start("maze", "render", this.grid);
+    int redrawn = 0;
+    if (!this.wallsDrawn) {
+      this.drawWalls();
+      this.wallsDrawn = true;
+      redrawn = this.grid.size();
+    }
+    redrawn += this.drawPath();
+    if (this.status == null) {
+      this.status = new TextImage("Time to search: " + this.solveTime + " ns, "
+          + (this.solution == null ? 0 : this.solution.expanded) + " cells expanded", Color.RED);
+    }
+    WorldScene scene = new WorldScene(this.width * 30, this.height * 30);
+    scene.placeImageXY(this.wallLayer, this.width * 15, this.height * 15);
+    scene.placeImageXY(this.searchLayer, this.width * 15, this.height * 15);
+    scene.placeImageXY(this.pathLayer, this.width * 15, this.height * 15);
+    scene.placeImageXY(Maze.TEXT_D, (this.width * 40) + 20, (this.height * 15) + 20);
+    scene.placeImageXY(Maze.TEXT_R, (this.width * 40) + 20, (this.height * 15) - 20);
+    scene.placeImageXY(Maze.TEXT_B, (this.width * 40) + 20, (this.height * 15) - 60);
+    scene.placeImageXY(Maze.TEXT_A, (this.width * 40) + 20, (this.height * 15) - 40);
+    scene.placeImageXY(Maze.TEXT_S, (this.width * 40) + 20, (this.height * 15) + 40);
+    scene.placeImageXY(Maze.TEXT_G, (this.width * 40) + 20, (this.height * 15) + 60);
+    scene.placeImageXY(this.status, (this.width * 40) + 20, (this.height * 15) - 80);
+    Metrics.finish(phase, redrawn, 0);
+    return scene;
+  }
+}
+
+// Examples Class
+class ExamplesMaze {
+  // initializes init conditnions
+  MazeGrid grid;
+  MazeGrid wide;
+  Maze maze;
+  Maze maze3;
+
+  // INitializes variables
+  public void init() {
+    grid = new MazeGrid(3, 2);
+    wide = new MazeGrid(70, 2);
+    maze = new Maze();
+    maze3 = new Maze();
+  }
+
+  // plays the game
+  void testMaze(Tester t) {
+    init();
+    this.maze.bigBang(this.maze.width * 60, this.maze.height * 60, 1 / 8.0);
+  }
+
+  // Counts the cells reachable from the top left corner
+  int reachable(MazeGrid g) {
+    int[] queue = new int[g.size()];
+    boolean[] seen = new boolean[g.size()];
+    int[] scratch = new int[4];
+    int head = 0;
+    int tail = 0;
+    queue[tail++] = 0;
+    seen[0] = true;
+    while (head < tail) {
+      int n = g.openNeighbors(queue[head++], scratch);
+      for (int i = 0; i < n; i++) {
+        if (!seen[scratch[i]]) {
+          seen[scratch[i]] = true;
+          queue[tail++] = scratch[i];
+        }
+      }
+    }
+    return tail;
+  }
+
+  // Test OnKeyEvent
+  void testOnKeyEvent(Tester t) {
+    init();
+    MazeGrid temp = this.maze.grid;
+    maze.onKeyEvent("r");
+    t.checkExpect(maze.grid == temp, false);
+    t.checkExpect(maze.solution, null);
+    maze.onKeyEvent("d");
+    t.checkExpect(this.isPath(maze.grid, maze.solution.path), true);
+    maze.onKeyEvent("b");
+    t.checkExpect(this.isPath(maze.grid, maze.solution.path), true);
+    maze.onKeyEvent("a");
+    t.checkExpect(this.isPath(maze.grid, maze.solution.path), true);
+    t.checkExpect(maze.solveTime > 0, true);
+    maze.onKeyEvent("r");
+    t.checkExpect(maze.solution, null);
+    t.checkExpect(maze.solveTime, 0L);
+  }
+
+  // Checks that the path goes through open passages from the top left to the bottom right
+  boolean isPath(MazeGrid g, int[] path) {
+    if (path.length == 0 || path[0] != 0 || path[path.length - 1] != g.size() - 1) {
+      return false;
+    }
+    int[] scratch = new int[4];
+    for (int i = 0; i + 1 < path.length; i++) {
+      int n = g.openNeighbors(path[i], scratch);
+      boolean found = false;
+      for (int j = 0; j < n; j++) {
+        found = found || scratch[j] == path[i + 1];
+      }
+      if (!found) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Tests the cell indexing of MazeGrid
+  void testMazeGridCells(Tester t) {
+    init();
+    t.checkExpect(grid.size(), 6);
+    t.checkExpect(grid.cell(2, 1), 5);
+    t.checkExpect(grid.x(5), 2);
+    t.checkExpect(grid.y(5), 1);
+    t.checkExpect(grid.stride, 1);
+    t.checkExpect(wide.stride, 2);
+    t.checkException(new IllegalArgumentException("Maze must be at least 1x1, was 0x4"),
+        this, "makeGrid", 0, 4);
+  }
+
+  // Creates a grid, used to test the constructor
+  MazeGrid makeGrid(int width, int height) {
+    return new MazeGrid(width, height);
+  }
+
+  // Tests removing walls of MazeGrid
+  void testMazeGridWalls(Tester t) {
+    init();
+    t.checkExpect(grid.hasRightWall(0, 0), true);
+    t.checkExpect(grid.hasBottomWall(0, 0), true);
+    grid.removeRightWall(0, 0);
+    grid.removeBottomWall(1, 0);
+    t.checkExpect(grid.hasRightWall(0, 0), false);
+    t.checkExpect(grid.hasBottomWall(0, 0), true);
+    t.checkExpect(grid.hasBottomWall(1, 0), false);
+    t.checkExpect(grid.hasRightWall(0, 1), true);
+    t.checkExpect(grid.passages(), 2);
+    wide.removeRightWall(65, 1);
+    t.checkExpect(wide.hasRightWall(65, 1), false);
+    t.checkExpect(wide.hasRightWall(1, 1), true);
+    t.checkExpect(wide.hasRightWall(65, 0), true);
+  }
+
+  // Tests method openNeighbors
+  void testOpenNeighbors(Tester t) {
+    init();
+    int[] out = new int[4];
+    t.checkExpect(grid.openNeighbors(1, out), 0);
+    grid.removeRightWall(0, 0);
+    grid.removeRightWall(1, 0);
+    grid.removeBottomWall(1, 0);
+    t.checkExpect(grid.openNeighbors(1, out), 3);
+    t.checkExpect(Arrays.copyOf(out, 3), new int[] { 2, 4, 0 });
+    t.checkExpect(grid.openNeighbors(4, out), 1);
+    t.checkExpect(out[0], 1);
+  }
+
+  // Tests UnionFind find and union
+  void testUnionFind(Tester t) {
+    UnionFind sets = new UnionFind(5);
+    t.checkExpect(sets.count(), 5);
+    t.checkExpect(sets.find(3), 3);
+    t.checkExpect(sets.union(0, 1), true);
+    t.checkExpect(sets.union(1, 0), false);
+    t.checkExpect(sets.union(2, 3), true);
+    t.checkExpect(sets.union(1, 3), true);
+    t.checkExpect(sets.count(), 2);
+    t.checkExpect(sets.find(0) == sets.find(3), true);
+    t.checkExpect(sets.find(4) == sets.find(0), false);
+    t.checkExpect(sets.union(0, 2), false);
+  }
+
+  // Tests createEdges
+  void testCreateEdges(Tester t) {
+    init();
+    KruskalGenerator kruskal = new KruskalGenerator();
+    int[] edges = kruskal.createEdges(maze.grid);
+    t.checkExpect(edges.length, 180);
+    t.checkExpect(edges[0], 0);
+    t.checkExpect(edges[1], 1);
+    t.checkExpect(edges[2], 2);
+    t.checkExpect(kruskal.createEdges(grid), new int[] { 0, 1, 2, 3, 5, 6, 8 });
+  }
+
+  // Tests createWeights
+  void testCreateWeights(Tester t) {
+    KruskalGenerator kruskal = new KruskalGenerator();
+    int[] weights = kruskal.createWeights(180, 7);
+    t.checkExpect(weights.length, 180);
+    for (int i = 0; i < weights.length; i++) {
+      t.checkNumRange(weights[i], 0, 55);
+    }
+    t.checkExpect(kruskal.createWeights(180, 7), weights);
+  }
+
+  // Tests sortEdges
+  void testSortEdges(Tester t) {
+    init();
+    KruskalGenerator kruskal = new KruskalGenerator();
+    t.checkExpect(kruskal.sortEdges(new int[] { 0, 1, 2, 3 }, new int[] { 40, 3, 40, 0 }),
+        new int[] { 3, 1, 0, 2 });
+    int[] edges = kruskal.createEdges(wide);
+    int[] weights = kruskal.createWeights(edges.length, 3);
+    int[] sorted = kruskal.sortEdges(edges, weights);
+    int[] order = new int[2 * wide.size()];
+    for (int i = 0; i < edges.length; i++) {
+      order[edges[i]] = i;
+    }
+    for (int i = 0; i + 1 < sorted.length; i++) {
+      int a = order[sorted[i]];
+      int b = order[sorted[i + 1]];
+      t.checkExpect(weights[a] < weights[b] || (weights[a] == weights[b] && a < b), true);
+    }
+  }
+
+  // tests that removeCycles leaves a spanning tree
+  void testRemoveCycles(Tester t) {
+    init();
+    t.checkExpect(maze.grid.passages(), maze.grid.size() - 1);
+    t.checkExpect(this.reachable(maze.grid), maze.grid.size());
+    // the wall below 1 would close the loop 0 - 1 - 4 - 3
+    new KruskalGenerator().removeCycles(grid, new int[] { 0, 1, 6, 3, 8 });
+    t.checkExpect(grid.hasRightWall(0, 0), false);
+    t.checkExpect(grid.hasBottomWall(0, 0), false);
+    t.checkExpect(grid.hasRightWall(0, 1), false);
+    t.checkExpect(grid.hasBottomWall(1, 0), true);
+    t.checkExpect(grid.hasRightWall(1, 1), false);
+    t.checkExpect(grid.passages(), 4);
+  }
+
+  // Tests that generation is reproducible and works for mazes that are not square
+  void testGenerate(Tester t) {
+    MazeGenerator kruskal = new KruskalGenerator();
+    MazeGrid tall = kruskal.generate(7, 31, 42);
+    t.checkExpect(tall.width, 7);
+    t.checkExpect(tall.height, 31);
+    t.checkExpect(tall.passages(), tall.size() - 1);
+    t.checkExpect(this.reachable(tall), tall.size());
+    t.checkExpect(kruskal.generate(7, 31, 42), tall);
+    t.checkFail(kruskal.generate(7, 31, 43), tall);
+    // working arrays left over from a larger maze carve the same mazes
+    Scratch scratch = new Scratch();
+    int[][] sizes = { { 40, 30 }, { 7, 31 }, { 40, 30 }, { 1, 9 } };
+    for (int[] size : sizes) {
+      MazeGrid reused = new MazeGrid(size[0], size[1]);
+      kruskal.carve(reused, 42, Progress.NONE, scratch);
+      t.checkExpect(reused, kruskal.generate(size[0], size[1], 42));
+    }
+    Maze wideMaze = new Maze(40, 3);
+    Maze tallMaze = new Maze(3, 40);
+    wideMaze.onKeyEvent("b");
+    tallMaze.onKeyEvent("d");
+    t.checkExpect(this.isPath(wideMaze.grid, wideMaze.solution.path), true);
+    t.checkExpect(this.isPath(tallMaze.grid, tallMaze.solution.path), true);
+    t.checkExpect(tallMaze.grid.width, 3);
+  }
+
+  // Tests that the tiled generator makes reproducible perfect mazes
+  void testTiledGenerator(Tester t) {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    MazeGenerator tiled = new TiledGenerator(16, pool);
+    MazeGrid big = tiled.generate(150, 97, 9);
+    t.checkExpect(big.passages(), big.size() - 1);
+    t.checkExpect(this.reachable(big), big.size());
+    t.checkExpect(tiled.generate(150, 97, 9), big);
+    ForkJoinPool single = new ForkJoinPool(1);
+    t.checkExpect(new TiledGenerator(16, single).generate(150, 97, 9), big);
+    single.shutdown();
+    t.checkFail(new TiledGenerator(15, pool).generate(150, 97, 9), big);
+    // more tiles than cells
+    MazeGrid small = new TiledGenerator(64, pool).generate(3, 5, 1);
+    t.checkExpect(small.passages(), small.size() - 1);
+    t.checkExpect(this.reachable(small), small.size());
+    MazeGrid one = new TiledGenerator(1, pool).generate(1, 1, 1);
+    t.checkExpect(one.passages(), 0);
+    pool.shutdown();
+  }
+
+  // Tests that Eller's algorithm makes reproducible perfect mazes
+  void testEllerGenerator(Tester t) {
+    MazeGenerator eller = new EllerGenerator();
+    int[][] sizes = { { 1, 1 }, { 1, 9 }, { 9, 1 }, { 65, 40 }, { 130, 3 } };
+    for (int[] size : sizes) {
+      MazeGrid g = eller.generate(size[0], size[1], 3);
+      t.checkExpect(g.passages(), g.size() - 1);
+      t.checkExpect(this.reachable(g), g.size());
+    }
+    t.checkExpect(eller.generate(65, 40, 3), eller.generate(65, 40, 3));
+    t.checkFail(eller.generate(65, 40, 3), eller.generate(65, 40, 4));
+  }
+
+  // Tests that every named generator makes reproducible perfect mazes, including
+  // grids one cell wide or tall and rows that span several words
+  void testGenerators(Tester t) {
+    int[][] sizes = { { 1, 1 }, { 1, 9 }, { 9, 1 }, { 64, 5 }, { 65, 40 }, { 130, 3 } };
+    for (String name : MazeGenerator.NAMES) {
+      MazeGenerator generator = MazeGenerator.of(name);
+      for (int[] size : sizes) {
+        MazeGrid g = generator.generate(size[0], size[1], 7);
+        t.checkExpect(g.passages(), g.size() - 1);
+        t.checkExpect(this.reachable(g), g.size());
+      }
+      t.checkExpect(generator.generate(65, 40, 7), generator.generate(65, 40, 7));
+      t.checkFail(generator.generate(65, 40, 7), generator.generate(65, 40, 8));
+    }
+    // the backtracker keeps its own stack, so a single corridor of a million cells is fine
+    MazeGrid corridor = new BacktrackerGenerator().generate(1, 1 << 20, 1);
+    t.checkExpect(corridor.passages(), corridor.size() - 1);
+    // the binary tree leaves the bottom row and the right column open
+    MazeGrid binary = new BinaryTreeGenerator().generate(70, 6, 2);
+    for (int x = 0; x + 1 < 70; x++) {
+      t.checkExpect(binary.hasRightWall(x, 5), false);
+    }
+    for (int y = 0; y + 1 < 6; y++) {
+      t.checkExpect(binary.hasBottomWall(69, y), false);
+    }
+    Maze maze = new Maze(8, 6);
+    maze.onKeyEvent("g");
+    t.checkExpect(maze.generator instanceof TiledGenerator, true);
+    t.checkExpect(maze.grid.passages(), maze.grid.size() - 1);
+    for (int i = 1; i < MazeGenerator.NAMES.length; i++) {
+      maze.onKeyEvent("g");
+    }
+    t.checkExpect(maze.generator instanceof KruskalGenerator, true);
+  }
+
+  // Tests that prefetched mazes come in seed order and that grids are carved again
+  void testMazePrefetcher(Tester t) throws InterruptedException {
+    MazeGenerator kruskal = new KruskalGenerator();
+    MazePrefetcher mazes = new MazePrefetcher(kruskal, 33, 21, 1);
+    MazeGrid first = mazes.next(null, 2);
+    t.checkExpect(first, kruskal.generate(33, 21, 1));
+    t.checkExpect(mazes.pooled(), 0);
+    MazeGrid second = mazes.next(first, 3);
+    t.checkExpect(second, kruskal.generate(33, 21, 2));
+    // the first grid is carved again for seed 3 once the build starts, or waits in the pool
+    MazeGrid third = mazes.next(second, 4);
+    t.checkExpect(third, kruskal.generate(33, 21, 3));
+    t.checkExpect(third == first || mazes.pooled() > 0, true);
+    MazeGrid fourth = mazes.next(third, 5);
+    t.checkExpect(fourth, kruskal.generate(33, 21, 4));
+    t.checkExpect(fourth == first || fourth == second || fourth == third, true);
+    // grids of another size are not kept
+    mazes.next(new MazeGrid(5, 5), 6);
+    t.checkExpect(mazes.pooled() <= 2, true);
+
+    // switching generators drops the build in progress, which stops at its next report
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Boolean> stopped = new CompletableFuture<>();
+    MazeGenerator stuck = new MazeGenerator() {
+      public void carve(MazeGrid grid, long seed) {
+        this.carve(grid, seed, Progress.NONE);
+      }
+
+      public void carve(MazeGrid grid, long seed, Progress progress) {
+        try {
+          release.await();
+          progress.report(0);
+          stopped.complete(false);
+        }
+        catch (CancellationException e) {
+          stopped.complete(true);
+          throw e;
+        }
+        catch (InterruptedException e) {
+          stopped.completeExceptionally(e);
+        }
+      }
+    };
+    MazePrefetcher switching = new MazePrefetcher(stuck, 33, 21, 1);
+    switching.switchTo(kruskal, 7);
+    t.checkExpect(switching.next(null, 8), kruskal.generate(33, 21, 7));
+    t.checkExpect(switching.next(null, 9), kruskal.generate(33, 21, 8));
+    release.countDown();
+    t.checkExpect(stopped.join(), true);
+
+    // a build that fails is thrown once, and the following build still starts
+    MazeGenerator failsOnce = new MazeGenerator() {
+      boolean failed;
+
+      public void carve(MazeGrid grid, long seed) {
+        if (!this.failed) {
+          this.failed = true;
+          throw new IllegalStateException("Failed to carve seed " + seed);
+        }
+        kruskal.carve(grid, seed);
+      }
+    };
+    MazePrefetcher failing = new MazePrefetcher(failsOnce, 33, 21, 1);
+    t.checkException(new IllegalStateException("Failed to carve seed 1"), failing, "next",
+        null, 2L);
+    t.checkExpect(failing.next(null, 3), kruskal.generate(33, 21, 2));
+    t.checkExpect(failing.next(null, 4), kruskal.generate(33, 21, 3));
+
+    MazeGrid g = kruskal.generate(70, 3, 1);
+    g.reset();
+    t.checkExpect(g, new MazeGrid(70, 3));
+
+    // the window shows the same mazes as generating them one after the other
+    Maze maze = new Maze(12, 9, new KruskalGenerator(), new Random(8));
+    Random seeds = new Random(8);
+    t.checkExpect(maze.grid, kruskal.generate(12, 9, seeds.nextLong()));
+    long secondSeed = seeds.nextLong();
+    maze.onKeyEvent("r");
+    t.checkExpect(maze.grid, kruskal.generate(12, 9, secondSeed));
+    t.checkException(new IllegalArgumentException("Maze must be at least 1x1, was 0x4"), this,
+        "makePrefetcher", 0, 4);
+  }
+
+  // Creates a prefetcher, used to test the constructor
+  MazePrefetcher makePrefetcher(int width, int height) {
+    return new MazePrefetcher(new KruskalGenerator(), width, height, 1);
+  }
+
+  // Tests that the streamed rows hold the same walls as the carved grid
+  void testEllerStream(Tester t) {
+    EllerGenerator eller = new EllerGenerator();
+    MazeGrid g = eller.generate(70, 12, 5);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try {
+      StreamReport report = eller.stream(70, 12, 5, Channels.newChannel(bytes));
+      t.checkExpect(report.rows, 12L);
+      t.checkExpect(report.bytes, 12L * 32);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    LongBuffer words = ByteBuffer.wrap(bytes.toByteArray()).order(ByteOrder.LITTLE_ENDIAN)
+        .asLongBuffer();
+    t.checkExpect(words.remaining(), 12 * 4);
+    for (int y = 0; y < 12; y++) {
+      for (int x = 0; x < 70; x++) {
+        long rightWord = words.get(y * 4 + (x >>> 6));
+        long bottomWord = words.get(y * 4 + 2 + (x >>> 6));
+        t.checkExpect((rightWord & (1L << x)) != 0, g.hasRightWall(x, y));
+        t.checkExpect((bottomWord & (1L << x)) != 0, g.hasBottomWall(x, y));
+      }
+    }
+  }
+
+  // Checks that two grids have the same size and walls
+  boolean sameWalls(MazeGrid a, MazeGrid b) {
+    if (a.width != b.width || a.height != b.height) {
+      return false;
+    }
+    for (int y = 0; y < a.height; y++) {
+      for (int x = 0; x < a.width; x++) {
+        if (a.hasRightWall(x, y) != b.hasRightWall(x, y)
+            || a.hasBottomWall(x, y) != b.hasBottomWall(x, y)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  // Tests saving a maze and mapping it back
+  void testMazeFile(Tester t) throws IOException {
+    Path path = Files.createTempFile("maze", ".bin");
+    MazeGrid saved = new KruskalGenerator().generate(100, 37, 11);
+    MazeFile.save(path, saved, 11, "kruskal");
+    t.checkExpect(Files.size(path), 64L + 37 * 32);
+    MazeFile header = MazeFile.read(path);
+    t.checkExpect(header.width, 100);
+    t.checkExpect(header.height, 37L);
+    t.checkExpect(header.seed, 11L);
+    t.checkExpect(header.algorithm, "kruskal");
+    MappedMazeGrid mapped = MazeFile.map(path, false);
+    t.checkExpect(this.sameWalls(mapped, saved), true);
+    t.checkExpect(new BreadthFirstSolver().solve(mapped, 0, mapped.size() - 1).path,
+        new BreadthFirstSolver().solve(saved, 0, saved.size() - 1).path);
+    // knocking down a wall through a writable mapping changes the file
+    MappedMazeGrid writable = MazeFile.map(path, true);
+    int x = 0;
+    while (!writable.hasRightWall(x, 5)) {
+      x++;
+    }
+    writable.removeRightWall(x, 5);
+    writable.force();
+    t.checkExpect(MazeFile.map(path, false).hasRightWall(x, 5), false);
+    Files.delete(path);
+  }
+
+  // Tests streaming a maze into a file
+  void testMazeFileStream(Tester t) throws IOException {
+    Path path = Files.createTempFile("maze", ".bin");
+    StreamReport report = MazeFile.stream(path, 130, 20, 8);
+    t.checkExpect(report.rows, 20L);
+    t.checkExpect(MazeFile.read(path).algorithm, "eller");
+    t.checkExpect(this.sameWalls(MazeFile.map(path, false),
+        new EllerGenerator().generate(130, 20, 8)), true);
+    Files.write(path, new byte[] { 1, 2, 3 });
+    t.checkException(new IOException("Not a maze file: " + path), this, "readMaze", path);
+    Files.delete(path);
+  }
+
+  // Reads the header of a maze file, used to test errors
+  MazeFile readMaze(Path path) throws IOException {
+    return MazeFile.read(path);
+  }
+
+  // Tests that makeScene draws the walls once and redraws the path when it changes
+  void testMakeScene(Tester t) {
+    init();
+    t.checkExpect(maze.wallLayer, null);
+    maze.makeScene();
+    t.checkExpect(maze.wallsDrawn, true);
+    ComputedPixelImage walls = maze.wallLayer;
+    t.checkExpect(walls.getPixel(15, 15), Color.GREEN);
+    t.checkExpect(walls.getPixel(285, 285), Color.PINK);
+    for (int y = 0; y < 10; y++) {
+      for (int x = 0; x + 1 < 10; x++) {
+        t.checkExpect(Color.RED.equals(walls.getPixel((x * 30) + 30, (y * 30) + 10)),
+            maze.grid.hasRightWall(x, y));
+      }
+    }
+    maze.makeScene();
+    t.checkExpect(maze.wallLayer == walls, true);
+    maze.onKeyEvent("b");
+    maze.makeScene();
+    int[] path = maze.solution.path;
+    t.checkExpect(maze.drawnPath, path);
+    for (int i = 0; i < path.length; i++) {
+      t.checkExpect(maze.pathLayer.getPixel((maze.grid.x(path[i]) * 30) + 15,
+          (maze.grid.y(path[i]) * 30) + 15), Color.BLUE);
+    }
+    // erasing the path clears every pixel it covered
+    maze.paintPath(path, Maze.CLEAR);
+    for (int i = 0; i < path.length; i++) {
+      t.checkExpect(maze.pathLayer.getPixel((maze.grid.x(path[i]) * 30) + 15,
+          (maze.grid.y(path[i]) * 30) + 15), Maze.CLEAR);
+    }
+    maze.paintPath(path, Color.BLUE);
+    // a new maze is drawn over the same layers, erasing the old walls and path
+    maze.onKeyEvent("r");
+    t.checkExpect(maze.wallsDrawn, false);
+    maze.makeScene();
+    t.checkExpect(maze.wallLayer == walls, true);
+    for (int y = 0; y < 10; y++) {
+      for (int x = 0; x + 1 < 10; x++) {
+        t.checkExpect(Color.RED.equals(walls.getPixel((x * 30) + 30, (y * 30) + 10)),
+            maze.grid.hasRightWall(x, y));
+      }
+    }
+    t.checkExpect(walls.getPixel(15, 15), Color.GREEN);
+    t.checkExpect(maze.drawnPath, new int[0]);
+    for (int i = 0; i < path.length; i++) {
+      t.checkExpect(maze.pathLayer.getPixel((maze.grid.x(path[i]) * 30) + 15,
+          (maze.grid.y(path[i]) * 30) + 15), Maze.CLEAR);
+    }
+    // in a maze one cell wide the path runs straight down
+    Maze column = new Maze(1, 4);
+    column.onKeyEvent("b");
+    column.makeScene();
+    t.checkExpect(column.pathLayer.getPixel(15, 30), Color.BLUE);
+    t.checkExpect(column.pathLayer.getPixel(15, 100), Color.BLUE);
+    t.checkExpect(Color.BLUE.equals(column.pathLayer.getPixel(25, 15)), false);
+  }
+
+  // Tests the solvers on a grid with a loop and a dead end
+  //   0 - 1 - 2
+  //   |   |
+  //   3 - 4   5
+  void testSolvers(Tester t) {
+    init();
+    grid.removeRightWall(0, 0);
+    grid.removeRightWall(1, 0);
+    grid.removeBottomWall(0, 0);
+    grid.removeBottomWall(1, 0);
+    grid.removeRightWall(0, 1);
+    t.checkExpect(new BreadthFirstSolver().solve(grid, 0, 4).path.length, 3);
+    t.checkExpect(new AStarSolver().solve(grid, 0, 4).path.length, 3);
+    t.checkExpect(new DepthFirstSolver().solve(grid, 0, 4).path, new int[] { 0, 1, 4 });
+    t.checkExpect(new BreadthFirstSolver().solve(grid, 3, 2).path, new int[] { 3, 4, 1, 2 });
+    t.checkExpect(new BreadthFirstSolver().solve(grid, 0, 0).path, new int[] { 0 });
+    t.checkExpect(new BreadthFirstSolver().solve(grid, 0, 5).path, new int[0]);
+    t.checkExpect(new DepthFirstSolver().solve(grid, 0, 5).path, new int[0]);
+    t.checkExpect(new AStarSolver().solve(grid, 0, 5).path, new int[0]);
+    t.checkExpect(new BreadthFirstSolver().solve(grid, 0, 5).expanded, 5);
+  }
+
+  // Tests that the solvers agree on a generated maze
+  void testSolversAgree(Tester t) {
+    init();
+    int goal = maze.grid.size() - 1;
+    Solution bfs = new BreadthFirstSolver().solve(maze.grid, 0, goal);
+    Solution dfs = new DepthFirstSolver().solve(maze.grid, 0, goal);
+    Solution astar = new AStarSolver().solve(maze.grid, 0, goal);
+    t.checkExpect(this.isPath(maze.grid, bfs.path), true);
+    t.checkExpect(dfs.path, bfs.path);
+    t.checkExpect(astar.path, bfs.path);
+    t.checkExpect(astar.expanded <= bfs.expanded, true);
+  }
+
+  // Tests finding generators and solvers by name
+  void testByName(Tester t) {
+    t.checkExpect(MazeGenerator.of("kruskal") instanceof KruskalGenerator, true);
+    t.checkExpect(MazeGenerator.of("tiled") instanceof TiledGenerator, true);
+    t.checkExpect(MazeGenerator.of("eller") instanceof EllerGenerator, true);
+    t.checkExpect(MazeSolver.of("bfs") instanceof BreadthFirstSolver, true);
+    t.checkExpect(MazeSolver.of("dfs") instanceof DepthFirstSolver, true);
+    t.checkExpect(MazeSolver.of("astar") instanceof AStarSolver, true);
+    t.checkExpect(MazeGenerator.of("backtracker") instanceof BacktrackerGenerator, true);
+    t.checkExpect(MazeGenerator.of("prim") instanceof PrimGenerator, true);
+    t.checkExpect(MazeGenerator.of("wilson") instanceof WilsonGenerator, true);
+    t.checkExpect(MazeGenerator.of("binary") instanceof BinaryTreeGenerator, true);
+    t.checkExpect(MazeGenerator.of("sidewinder") instanceof SidewinderGenerator, true);
+    t.checkException(new IllegalArgumentException("Unknown generator: aldous"), this,
+        "generatorNamed", "aldous");
+    t.checkException(new IllegalArgumentException("Unknown solver: bogo"), this, "solverNamed",
+        "bogo");
+  }
+
+  // Looks up a generator, used to test MazeGenerator.of
+  MazeGenerator generatorNamed(String name) {
+    return MazeGenerator.of(name);
+  }
+
+  // Looks up a solver, used to test MazeSolver.of
+  MazeSolver solverNamed(String name) {
+    return MazeSolver.of(name);
+  }
+
+  // Creates a batch solver, used to test the constructor
+  BatchSolver makeBatch(int maxJobs) {
+    return new BatchSolver(maxJobs);
+  }
+
+  // Tests running a batch of mazes with fewer permits than jobs
+  void testBatchSolver(Tester t) throws InterruptedException {
+    List<MazeSpec> specs = new ArrayList<MazeSpec>();
+    for (int i = 0; i < 20; i++) {
+      specs.add(new MazeSpec(5 + i, 7, i, i % 2 == 0 ? "kruskal" : "eller",
+          i % 3 == 0 ? "astar" : "bfs"));
+    }
+    specs.add(new MazeSpec(0, 7, 1));
+    specs.add(new MazeSpec(5, 5, 1, "kruskal", "bogo"));
+    List<BatchResult> results = new ArrayList<BatchResult>();
+    BatchReport report = new BatchSolver(3).run(specs.iterator(), results::add);
+    t.checkExpect(report.jobs, 22L);
+    t.checkExpect(report.failures, 2L);
+    t.checkExpect(results.size(), 22);
+    for (BatchResult result : results) {
+      MazeSpec spec = result.spec;
+      if (spec.width == 0 || spec.solver.equals("bogo")) {
+        t.checkExpect(result.failure instanceof IllegalArgumentException, true);
+      }
+      else {
+        MazeGrid grid = MazeGenerator.of(spec.generator).generate(spec.width, spec.height,
+            spec.seed);
+        t.checkExpect(result.failure, null);
+        t.checkExpect(result.pathLength, new BreadthFirstSolver().solve(grid, 0,
+            grid.size() - 1).path.length);
+      }
+    }
+    t.checkException(new IllegalArgumentException("At least one job must run at a time, was 0"),
+        this, "makeBatch", 0);
+  }
+
+  // Tests that metrics are reported for every phase while a listener is registered
+  void testMetrics(Tester t) {
+    init();
+    List<PhaseMetrics> phases = new ArrayList<PhaseMetrics>();
+    // mazes made by init are prefetching their next maze, which reports from another thread
+    Thread self = Thread.currentThread();
+    MetricsListener listener = phase -> {
+      if (Thread.currentThread() == self) {
+        phases.add(phase);
+      }
+    };
+    t.checkExpect(Metrics.enabled(), false);
+    t.checkExpect(Metrics.start("bfs", "solve", grid), null);
+    Metrics.addListener(listener);
+    t.checkExpect(Metrics.enabled(), true);
+    MazeGrid kruskal = new KruskalGenerator().generate(8, 6, 3);
+    Solution solution = new BreadthFirstSolver().solve(kruskal, 0, kruskal.size() - 1);
+    maze.makeScene();
+    Metrics.removeListener(listener);
+    t.checkExpect(Metrics.enabled(), false);
+    new DepthFirstSolver().solve(kruskal, 0, kruskal.size() - 1);
+    String[] names = { "generate grid", "kruskal weights", "kruskal sort", "kruskal cycles",
+        "bfs solve", "maze render" };
+    t.checkExpect(phases.size(), names.length);
+    for (int i = 0; i < names.length && i < phases.size(); i++) {
+      PhaseMetrics phase = phases.get(i);
+      t.checkExpect(phase.source + " " + phase.phase, names[i]);
+      t.checkExpect(phase.nanos >= 0, true);
+    }
+    t.checkExpect(phases.get(1).width, 8);
+    t.checkExpect(phases.get(1).height, 6);
+    t.checkExpect(phases.get(1).operations, 82L);
+    t.checkNumRange(phases.get(3).operations, 47L, 83L);
+    t.checkExpect(phases.get(4).operations, (long) solution.expanded);
+    t.checkExpect(phases.get(4).frontier, (long) solution.frontier);
+    t.checkExpect(phases.get(5).operations, 100L);
+  }
+
+  // Tests the largest frontier each solver reports
+  void testFrontier(Tester t) {
+    init();
+    // a single corridor never has more than one cell waiting
+    MazeGrid line = new MazeGrid(5, 1);
+    for (int x = 0; x < 4; x++) {
+      line.removeRightWall(x, 0);
+    }
+    t.checkExpect(new BreadthFirstSolver().solve(line, 0, 4).frontier, 1);
+    t.checkExpect(new DepthFirstSolver().solve(line, 0, 4).frontier, 1);
+    t.checkExpect(new AStarSolver().solve(line, 0, 4).frontier, 1);
+    // from the middle of a corridor both ways are waiting at once
+    t.checkExpect(new BreadthFirstSolver().solve(line, 2, 4).frontier, 2);
+    Solution bfs = new BreadthFirstSolver().solve(maze.grid, 0, maze.grid.size() - 1);
+    t.checkNumRange(bfs.frontier, 1, maze.grid.size());
+  }
+
+  // Tests that the path index agrees with breadth first search between any two cells
+  void testPathIndex(Tester t) {
+    init();
+    PathIndex index = new PathIndex(maze.grid);
+    int n = maze.grid.size();
+    for (int a = 0; a < n; a += 7) {
+      for (int b = 0; b < n; b += 3) {
+        int[] path = new BreadthFirstSolver().solve(maze.grid, a, b).path;
+        t.checkExpect(index.path(a, b), path);
+        t.checkExpect(index.distance(a, b), path.length - 1);
+      }
+    }
+    t.checkExpect(index.path(5, 5), new int[] { 5 });
+    t.checkExpect(index.ancestor(0, 99), 0);
+    // cells that are walled off from each other have no path
+    PathIndex walled = new PathIndex(grid);
+    t.checkExpect(walled.distance(0, 5), -1);
+    t.checkExpect(walled.path(0, 5), new int[0]);
+    t.checkExpect(walled.distance(4, 4), 0);
+    grid.removeRightWall(0, 0);
+    grid.removeBottomWall(0, 0);
+    grid.removeBottomWall(1, 0);
+    t.checkExpect(new PathIndex(grid).path(3, 1), new int[] { 3, 0, 1 });
+    grid.removeRightWall(0, 1);
+    t.checkException(new IllegalArgumentException("Maze has loops, so paths are not unique"),
+        this, "makeIndex", grid);
+  }
+
+  // Creates a path index, used to test the constructor
+  PathIndex makeIndex(MazeGrid maze) {
+    return new PathIndex(maze);
+  }
+
+  // Tests putting up and knocking down walls
+  void testAddWalls(Tester t) {
+    init();
+    wide.removeRightWall(64, 1);
+    wide.addRightWall(64, 1);
+    t.checkExpect(wide.hasRightWall(64, 1), true);
+    wide.removeBottomWall(3, 0);
+    t.checkExpect(wide.hasBottomWall(3, 0), false);
+    wide.addBottomWall(3, 0);
+    t.checkExpect(wide.hasBottomWall(3, 0), true);
+    t.checkExpect(wide.hasBottomWall(2, 0), true);
+  }
+
+  // Tests that the incremental solver keeps a shortest path through random edits
+  void testIncrementalSolver(Tester t) {
+    MazeGrid edited = new KruskalGenerator().generate(12, 9, 5);
+    int goal = edited.size() - 1;
+    IncrementalSolver solver = new IncrementalSolver(edited, 0, goal);
+    t.checkExpect(solver.solution().path, new BreadthFirstSolver().solve(edited, 0, goal).path);
+    t.checkExpect(solver.distance(goal), solver.solution().path.length - 1);
+    java.util.SplittableRandom random = new java.util.SplittableRandom(9);
+    for (int i = 0; i < 300; i++) {
+      int x = random.nextInt(11);
+      int y = random.nextInt(8);
+      boolean open = random.nextInt(3) > 0;
+      if (random.nextBoolean()) {
+        if (open) {
+          solver.removeRightWall(x, y);
+        }
+        else {
+          solver.addRightWall(x, y);
+        }
+      }
+      else {
+        if (open) {
+          solver.removeBottomWall(x, y);
+        }
+        else {
+          solver.addBottomWall(x, y);
+        }
+      }
+      Solution repaired = solver.solution();
+      Solution fresh = new BreadthFirstSolver().solve(edited, 0, goal);
+      t.checkExpect(repaired.path.length, fresh.path.length);
+      if (repaired.path.length > 0) {
+        t.checkExpect(this.isPath(edited, repaired.path), true);
+      }
+    }
+    // walling in the goal cuts it off, and opening one wall brings it back
+    solver.addRightWall(10, 8);
+    solver.addBottomWall(11, 7);
+    t.checkExpect(solver.solution().path, new int[0]);
+    t.checkExpect(solver.distance(goal), -1);
+    solver.removeBottomWall(11, 7);
+    t.checkExpect(solver.solution().path.length,
+        new BreadthFirstSolver().solve(edited, 0, goal).path.length);
+    // a wall put up without telling the solver breaks the path, which fails loudly
+    MazeGrid corridor = new MazeGrid(3, 2);
+    corridor.removeRightWall(0, 0);
+    corridor.removeRightWall(1, 0);
+    IncrementalSolver stale = new IncrementalSolver(corridor, 0, 2);
+    t.checkExpect(stale.solution().path, new int[] { 0, 1, 2 });
+    corridor.addRightWall(0, 0);
+    stale.addBottomWall(2, 0);
+    t.checkException(new IllegalStateException("No open neighbour of cell 1 is at distance 0"),
+        stale, "solution");
+  }
+
+  // Tests that a search cursor expands cells in the same order as the full solvers
+  void testSearchCursor(Tester t) {
+    init();
+    int goal = maze.grid.size() - 1;
+    for (int depth = 0; depth < 2; depth++) {
+      SearchCursor cursor = new SearchCursor(maze.grid, 0, goal, depth == 1);
+      int[] cells = new int[7];
+      int total = 0;
+      while (!cursor.finished()) {
+        int count = cursor.advance(7, cells);
+        t.checkNumRange(count, 0, 8);
+        total += count;
+      }
+      Solution full = depth == 1 ? new DepthFirstSolver().solve(maze.grid, 0, goal)
+          : new BreadthFirstSolver().solve(maze.grid, 0, goal);
+      t.checkExpect(cursor.solution().path, full.path);
+      t.checkExpect(cursor.solution().expanded, full.expanded);
+      t.checkExpect(total, full.expanded);
+      t.checkExpect(cursor.advance(7, cells), 0);
+    }
+    SearchCursor walled = new SearchCursor(grid, 0, 5, false);
+    t.checkExpect(walled.advance(10, new int[10]), 1);
+    t.checkExpect(walled.solution().path, new int[0]);
+  }
+
+  // Tests that an A* search run a few cells at a time finds the path it finds in one go
+  void testAStarCursor(Tester t) {
+    MazeGrid big = new KruskalGenerator().generate(60, 40, 6);
+    int goal = big.size() - 1;
+    AStarCursor cursor = new AStarCursor(big, 0, goal);
+    int[] cells = new int[5];
+    int total = 0;
+    while (!cursor.finished()) {
+      int count = cursor.advance(5, cells);
+      t.checkNumRange(count, 0, 6);
+      total += count;
+      t.checkExpect(cursor.expanded(), total);
+    }
+    Solution full = new AStarSolver().solve(big, 0, goal);
+    t.checkExpect(cursor.solution().path, full.path);
+    t.checkExpect(cursor.solution().expanded, full.expanded);
+    t.checkExpect(cursor.solution().frontier, full.frontier);
+    t.checkExpect(full.path, new BreadthFirstSolver().solve(big, 0, goal).path);
+    t.checkExpect(cursor.advance(5, cells), 0);
+    AStarCursor walled = new AStarCursor(new MazeGrid(3, 2), 0, 5);
+    t.checkExpect(walled.advance(10, null), 1);
+    t.checkExpect(walled.solution().path, new int[0]);
+  }
+
+  // Tests animating a search on ticks
+  void testOnTick(Tester t) {
+    init();
+    maze.onTick();
+    t.checkExpect(maze.solution, null);
+    maze.makeScene();
+    maze.onKeyEvent("s");
+    maze.onTick();
+    t.checkExpect(maze.cursor.expanded(), 5);
+    t.checkExpect(maze.searchLayer.getPixel(15, 15), Maze.SEARCHED);
+    while (maze.cursor != null) {
+      maze.onTick();
+    }
+    Solution bfs = new BreadthFirstSolver().solve(maze.grid, 0, 99);
+    t.checkExpect(maze.solution.path, bfs.path);
+    t.checkExpect(maze.searchLayer.getPixel(285, 285), Maze.SEARCHED);
+    maze.onTick();
+    t.checkExpect(maze.solution.path, bfs.path);
+    ComputedPixelImage searched = maze.searchLayer;
+    maze.onKeyEvent("f");
+    t.checkExpect(maze.solution, null);
+    t.checkExpect(maze.searchLayer == searched, true);
+    t.checkExpect(Maze.SEARCHED.equals(maze.searchLayer.getPixel(15, 15)), false);
+    t.checkExpect(Maze.SEARCHED.equals(maze.searchLayer.getPixel(285, 285)), false);
+    // a new maze clears the search
+    maze.onTick();
+    maze.onKeyEvent("r");
+    maze.makeScene();
+    t.checkExpect(Maze.SEARCHED.equals(maze.searchLayer.getPixel(15, 15)), false);
+  }
+
+  // Tests that dead end filling finds the same path as breadth first search
+  void testDeadEndFiller(Tester t) {
+    init();
+    MazeGrid big = new KruskalGenerator().generate(90, 150, 4);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    MazeGrid[] mazes = { maze.grid, big, new EllerGenerator().generate(33, 200, 8) };
+    for (MazeGrid m : mazes) {
+      for (int goal = m.size() - 1; goal > 0; goal -= m.size() / 3) {
+        int[] path = new BreadthFirstSolver().solve(m, 0, goal).path;
+        t.checkExpect(new DeadEndFiller().solve(m, 0, goal).path, path);
+        t.checkExpect(new DeadEndFiller(pool).solve(m, 0, goal).path, path);
+      }
+    }
+    // with a loop the shortest way through what is left is taken
+    big.removeRightWall(3, 3);
+    big.removeBottomWall(40, 100);
+    int[] path = new BreadthFirstSolver().solve(big, 0, big.size() - 1).path;
+    t.checkExpect(new DeadEndFiller().solve(big, 0, big.size() - 1).path.length, path.length);
+    t.checkExpect(new DeadEndFiller(pool).solve(big, 0, big.size() - 1).path.length, path.length);
+    t.checkExpect(new DeadEndFiller().solve(grid, 0, 5).path, new int[0]);
+    t.checkExpect(new DeadEndFiller(pool).solve(grid, 0, 5).path, new int[0]);
+    t.checkExpect(MazeSolver.of("deadend") instanceof DeadEndFiller, true);
+    // an open grid has no dead ends, so what is left is searched like breadth first
+    // search and the largest frontier is the same
+    MazeGrid open = new MazeGrid(6, 6);
+    for (int y = 0; y < 6; y++) {
+      for (int x = 0; x < 6; x++) {
+        open.removeRightWall(x, y);
+        open.removeBottomWall(x, y);
+      }
+    }
+    Solution bfs = new BreadthFirstSolver().solve(open, 0, 35);
+    t.checkExpect(new DeadEndFiller().solve(open, 0, 35).frontier, bfs.frontier);
+    t.checkExpect(bfs.frontier > 1, true);
+    pool.shutdown();
+  }
+
+  // Tests reading and changing passage costs
+  void testPassageCosts(Tester t) {
+    init();
+    PassageCosts costs = new PassageCosts(grid);
+    t.checkExpect(costs.rightCost(1, 1), 1);
+    costs.setRightCost(1, 1, 200);
+    costs.setBottomCost(0, 0, 7);
+    t.checkExpect(costs.rightCost(1, 1), 200);
+    t.checkExpect(costs.between(5, 4), 200);
+    t.checkExpect(costs.between(0, 3), 7);
+    t.checkExpect(costs.bottomCost(0, 0), 7);
+    t.checkException(new IllegalArgumentException("Cost must be from 1 to 255, was 256"), costs,
+        "setBottomCost", 0, 0, 256);
+    PassageCosts random = PassageCosts.random(wide, 9, 3);
+    for (int x = 0; x < 70; x++) {
+      t.checkNumRange(random.rightCost(x, 0), 1, 10);
+    }
+    t.checkExpect(PassageCosts.random(wide, 9, 3).bottomCost(40, 1), random.bottomCost(40, 1));
+    // in a maze one cell wide every step is down or up
+    MazeGrid column = new BacktrackerGenerator().generate(1, 3, 1);
+    PassageCosts down = new PassageCosts(column);
+    down.setBottomCost(0, 0, 200);
+    t.checkExpect(down.between(0, 1), 200);
+    t.checkExpect(down.between(2, 1), 1);
+    t.checkExpect(new WeightedSolver(down).cost(0, 2), 201L);
+  }
+
+  // Tests that the weighted solvers find the cheapest path
+  void testWeightedSolver(Tester t) {
+    init();
+    // with equal costs the cheapest path is the shortest one
+    int goal = maze.grid.size() - 1;
+    PassageCosts even = new PassageCosts(maze.grid);
+    int[] shortest = new BreadthFirstSolver().solve(maze.grid, 0, goal).path;
+    t.checkExpect(new WeightedSolver(even).solve(maze.grid, 0, goal).path, shortest);
+    t.checkExpect(new WeightedSolver(even, true).solve(maze.grid, 0, goal).path, shortest);
+    // a maze with loops, compared against relaxing every passage until nothing changes
+    MazeGrid loops = new KruskalGenerator().generate(14, 11, 6);
+    java.util.SplittableRandom random = new java.util.SplittableRandom(2);
+    for (int i = 0; i < 40; i++) {
+      loops.removeRightWall(random.nextInt(13), random.nextInt(11));
+      loops.removeBottomWall(random.nextInt(14), random.nextInt(10));
+    }
+    PassageCosts costs = PassageCosts.random(loops, 30, 8);
+    int end = loops.size() - 1;
+    long[] relaxed = new long[loops.size()];
+    Arrays.fill(relaxed, Long.MAX_VALUE);
+    relaxed[end] = 0;
+    int[] scratch = new int[4];
+    for (boolean changed = true; changed;) {
+      changed = false;
+      for (int cell = 0; cell < loops.size(); cell++) {
+        int count = loops.openNeighbors(cell, scratch);
+        for (int j = 0; j < count; j++) {
+          if (relaxed[scratch[j]] != Long.MAX_VALUE
+              && relaxed[scratch[j]] + costs.between(cell, scratch[j]) < relaxed[cell]) {
+            relaxed[cell] = relaxed[scratch[j]] + costs.between(cell, scratch[j]);
+            changed = true;
+          }
+        }
+      }
+    }
+    WeightedSolver dijkstra = new WeightedSolver(costs);
+    WeightedSolver astar = new WeightedSolver(costs, true);
+    t.checkExpect(dijkstra.distanceMap(end), relaxed);
+    t.checkExpect(dijkstra.cost(0, end), relaxed[0]);
+    t.checkExpect(astar.cost(0, end), relaxed[0]);
+    Solution path = astar.solve(loops, 0, end);
+    long total = 0;
+    for (int i = 0; i + 1 < path.path.length; i++) {
+      total += costs.between(path.path[i], path.path[i + 1]);
+    }
+    t.checkExpect(this.isPath(loops, path.path), true);
+    t.checkExpect(total, relaxed[0]);
+    t.checkExpect(astar.solve(loops, 0, end).expanded
+        <= dijkstra.solve(loops, 0, end).expanded, true);
+    t.checkExpect(new WeightedSolver(new PassageCosts(grid)).solve(grid, 0, 5).path, new int[0]);
+    t.checkExpect(new WeightedSolver(new PassageCosts(grid)).cost(0, 5), -1L);
+    t.checkException(new IllegalArgumentException("Costs belong to a different maze"),
+        dijkstra, "solve", grid, 0, 5);
+  }
+
+  // Tests the colours of exported pixels
+  void testMazeImagePixels(Tester t) {
+    init();
+    MazeImage image = new MazeImage(grid).withPath(new int[] { 0, 1, 4 });
+    t.checkExpect(image.pixelWidth(), 90);
+    t.checkExpect(image.pixelHeight(), 60);
+    t.checkExpect(image.pixel(5, 5), MazeImage.START);
+    t.checkExpect(image.pixel(85, 55), MazeImage.GOAL);
+    t.checkExpect(image.pixel(0, 20), MazeImage.BORDER);
+    t.checkExpect(image.pixel(40, 40), MazeImage.BACKGROUND);
+    t.checkExpect(image.pixel(30, 5), MazeImage.WALL);
+    t.checkExpect(image.pixel(5, 30), MazeImage.WALL);
+    t.checkExpect(image.pixel(20, 15), MazeImage.PATH);
+    t.checkExpect(image.pixel(45, 15), MazeImage.PATH);
+    t.checkExpect(image.pixel(45, 44), MazeImage.PATH);
+    t.checkExpect(image.pixel(46, 15), MazeImage.BACKGROUND);
+    // in a maze one cell wide the path runs straight down
+    MazeImage column = new MazeImage(new MazeGrid(1, 3)).withPath(new int[] { 0, 1, 2 });
+    t.checkExpect(column.pixel(15, 45), MazeImage.PATH);
+    t.checkExpect(column.pixel(15, 75), MazeImage.PATH);
+    t.checkExpect(column.pixel(25, 45), MazeImage.BACKGROUND);
+    t.checkException(new IllegalArgumentException("Cells must be at least 2 pixels, was 1"),
+        this, "makeImage", grid, 1);
+  }
+
+  // Creates an image, used to test the constructor
+  MazeImage makeImage(MazeGrid maze, int cell) {
+    return new MazeImage(maze, cell, ForkJoinPool.commonPool());
+  }
+
+  // Tests that an exported PNG decodes to the same pixels, across several strips
+  void testMazeImagePng(Tester t) throws IOException {
+    init();
+    MazeGrid tall = new EllerGenerator().generate(9, 2000, 3);
+    Solution solution = new BreadthFirstSolver().solve(tall, 0, tall.size() - 1);
+    ForkJoinPool pool = new ForkJoinPool(3);
+    MazeImage[] images = { new MazeImage(maze.grid).withPath(
+        new BreadthFirstSolver().solve(maze.grid, 0, 99).path),
+        new MazeImage(tall, 7, pool).withPath(solution.path) };
+    for (MazeImage image : images) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      image.writePng(bytes);
+      BufferedImage png = ImageIO.read(new ByteArrayInputStream(bytes.toByteArray()));
+      t.checkExpect(png.getWidth(), image.pixelWidth());
+      t.checkExpect(png.getHeight(), image.pixelHeight());
+      int wrong = 0;
+      for (int y = 0; y < png.getHeight(); y++) {
+        for (int x = 0; x < png.getWidth(); x++) {
+          if ((png.getRGB(x, y) & 0xFFFFFF) != image.pixel(x, y)) {
+            wrong++;
+          }
+        }
+      }
+      t.checkExpect(wrong, 0);
+    }
+    pool.shutdown();
+  }
+
+  // Tests the SVG export
+  void testMazeImageSvg(Tester t) throws IOException {
+    init();
+    StringWriter out = new StringWriter();
+    new MazeImage(grid).withPath(new int[] { 0, 1, 4 }).writeSvg(out);
+    String svg = out.toString();
+    t.checkExpect(svg.startsWith("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"90\""),
+        true);
+    t.checkExpect(svg.endsWith("</svg>\n"), true);
+    // the right walls of the first row, then its bottom walls joined into one run
+    t.checkExpect(svg.contains("M30.5 0v31M60.5 0v31M0 30.5h91\n"), true);
+    t.checkExpect(svg.contains("M15.5 15.5h30M45.5 15.5v30"), true);
+    t.checkExpect(svg.contains("fill=\"#00ff00\""), true);
+  }
+
+  // Counts the cells of a maze of any shape that can be reached from cell 0
+  int reachable(TopologyMaze m) {
+    return new BreadthFirstSolver().solve(m, 0, -1).expanded;
+  }
+
+  // Tests the neighbours of each topology
+  void testTopology(Tester t) {
+    Topology rectangle = Topology.rectangle(4, 3);
+    t.checkExpect(rectangle.edgeCount(), 17);
+    t.checkExpect(rectangle.degree(0), 2);
+    t.checkExpect(rectangle.degree(5), 4);
+    t.checkExpect(rectangle.maxDegree, 4);
+    Topology hexagon = Topology.hexagon(5, 4);
+    // an inner cell on an odd and on an even row
+    t.checkExpect(hexagon.degree(6), 6);
+    t.checkExpect(hexagon.degree(11), 6);
+    t.checkExpect(hexagon.degree(0), 2);
+    // the first cell of an odd row is shifted right, so it touches two cells above
+    t.checkExpect(hexagon.degree(5), 5);
+    TopologyMaze open = new TopologyMaze(hexagon);
+    for (int edge = 0; edge < hexagon.edgeCount(); edge++) {
+      open.removeWall(edge);
+    }
+    int[] out = new int[6];
+    int count = open.openNeighbors(6, out);
+    int[] sixth = Arrays.copyOf(out, count);
+    Arrays.sort(sixth);
+    t.checkExpect(sixth, new int[] { 1, 2, 5, 7, 11, 12 });
+    count = open.openNeighbors(11, out);
+    int[] eleventh = Arrays.copyOf(out, count);
+    Arrays.sort(eleventh);
+    t.checkExpect(eleventh, new int[] { 5, 6, 10, 12, 15, 16 });
+    Topology layered = Topology.layered(3, 3, 3);
+    t.checkExpect(layered.degree(13), 6);
+    t.checkExpect(layered.edgeCount(), 54);
+    Topology torus = Topology.torus(4, 3);
+    t.checkExpect(torus.edgeCount(), 24);
+    for (int cell = 0; cell < torus.size; cell++) {
+      t.checkExpect(torus.degree(cell), 4);
+    }
+    t.checkException(new IllegalArgumentException("Maze must be at least 3x3, was 2x5"), this,
+        "makeTorus", 2, 5);
+  }
+
+  // Creates a torus, used to test its size check
+  Topology makeTorus(int width, int height) {
+    return Topology.torus(width, height);
+  }
+
+  // Tests Kruskal's algorithm and breadth first search on every topology
+  void testTopologyMaze(Tester t) {
+    Topology[] shapes = { Topology.rectangle(9, 7), Topology.hexagon(9, 7),
+        Topology.layered(5, 4, 3), Topology.torus(6, 5) };
+    for (Topology shape : shapes) {
+      TopologyMaze m = new TopologyMaze(shape);
+      new KruskalGenerator().carve(m, 11);
+      t.checkExpect(m.passages(), shape.size - 1);
+      t.checkExpect(this.reachable(m), shape.size);
+      Solution solution = new BreadthFirstSolver().solve(m, 0, shape.size - 1);
+      int[] path = solution.path;
+      t.checkExpect(path[0], 0);
+      t.checkExpect(path[path.length - 1], shape.size - 1);
+      int[] out = new int[shape.maxDegree];
+      for (int i = 0; i + 1 < path.length; i++) {
+        int count = m.openNeighbors(path[i], out);
+        int next = path[i + 1];
+        t.checkExpect(Arrays.stream(out, 0, count).anyMatch(c -> c == next), true);
+      }
+    }
+    // the backtracker and Prim's algorithm carve every shape, and depth first search solves it
+    for (Topology shape : shapes) {
+      TopologyMaze[] carved = { new TopologyMaze(shape), new TopologyMaze(shape) };
+      new BacktrackerGenerator().carve(carved[0], 5);
+      new PrimGenerator().carve(carved[1], 5);
+      for (TopologyMaze m : carved) {
+        t.checkExpect(m.passages(), shape.size - 1);
+        t.checkExpect(this.reachable(m), shape.size);
+        int[] path = new DepthFirstSolver().solve(m, 0, shape.size - 1).path;
+        t.checkExpect(path, new BreadthFirstSolver().solve(m, 0, shape.size - 1).path);
+      }
+    }
+    t.checkException(new IllegalArgumentException("Cells 0 and 5 are not neighbours"),
+        new TopologyMaze(Topology.hexagon(4, 4)), "open", 0, 5);
+    // a rectangle numbers its walls like createEdges, so the same seed carves the same maze
+    TopologyMaze rectangle = new TopologyMaze(Topology.rectangle(9, 7));
+    new KruskalGenerator().carve(rectangle, 11);
+    MazeGrid same = new KruskalGenerator().generate(9, 7, 11);
+    int[] edges = new KruskalGenerator().createEdges(same);
+    for (int i = 0; i < edges.length; i++) {
+      int cell = edges[i] >>> 1;
+      boolean wall = (edges[i] & 1) == 0 ? same.hasRightWall(same.x(cell), same.y(cell))
+          : same.hasBottomWall(same.x(cell), same.y(cell));
+      t.checkExpect(rectangle.hasWall(i), wall);
+    }
+    // carving and solving any shape reports the same phases as a grid
+    List<PhaseMetrics> phases = new ArrayList<PhaseMetrics>();
+    Thread self = Thread.currentThread();
+    MetricsListener listener = phase -> {
+      if (Thread.currentThread() == self) {
+        phases.add(phase);
+      }
+    };
+    Metrics.addListener(listener);
+    TopologyMaze hexagon = new TopologyMaze(Topology.hexagon(9, 7));
+    new KruskalGenerator().carve(hexagon, 11);
+    Solution solution = new BreadthFirstSolver().solve(hexagon, 0, hexagon.size() - 1);
+    Metrics.removeListener(listener);
+    String[] names = { "kruskal weights", "kruskal sort", "kruskal cycles", "bfs solve" };
+    t.checkExpect(phases.size(), names.length);
+    for (int i = 0; i < names.length && i < phases.size(); i++) {
+      t.checkExpect(phases.get(i).source + " " + phases.get(i).phase, names[i]);
+      t.checkExpect(phases.get(i).width, 63);
+      t.checkExpect(phases.get(i).height, 1);
+    }
+    t.checkExpect(phases.get(0).operations, (long) hexagon.topology.edgeCount());
+    t.checkExpect(phases.get(3).operations, (long) solution.expanded);
+    t.checkExpect(phases.get(3).frontier, (long) solution.frontier);
+  }
+
+  // Tests the cache of mazes and solutions: the copies it hands out, its hit and miss
+  // counts, eviction once it is full, and sharing one build between threads
+  void testMazeCache(Tester t) throws InterruptedException {
+    MazeCache cache = new MazeCache(1 << 20);
+    MazeSpec spec = new MazeSpec(40, 30, 5);
+    MazeGrid built = new KruskalGenerator().generate(40, 30, 5);
+    MazeGrid cached = cache.maze(spec);
+    t.checkExpect(cache.maze(spec).passages(), built.passages());
+    for (int cell = 0; cell < built.size(); cell++) {
+      t.checkExpect(cached.hasRightWall(built.x(cell), built.y(cell)),
+          built.hasRightWall(built.x(cell), built.y(cell)));
+      t.checkExpect(cached.hasBottomWall(built.x(cell), built.y(cell)),
+          built.hasBottomWall(built.x(cell), built.y(cell)));
+    }
+    // the cache hands out copies
+    cached.removeRightWall(0, 0);
+    cached.removeBottomWall(0, 0);
+    t.checkExpect(cache.maze(spec).passages(), built.passages());
+    Solution solved = new BreadthFirstSolver().solve(built, 0, built.size() - 1);
+    t.checkExpect(cache.solution(spec).path, solved.path);
+    t.checkExpect(cache.solution(spec).path, solved.path);
+    t.checkExpect(cache.solution(spec).expanded, solved.expanded);
+    CacheStats stats = cache.stats();
+    t.checkExpect(stats.misses, 2L);
+    t.checkExpect(stats.hits, 5L);
+    t.checkExpect(stats.entries, 2);
+    t.checkExpect(stats.evictions, 0L);
+    // the same maze solved another way shares the maze entry
+    t.checkExpect(cache.solution(new MazeSpec(40, 30, 5, "kruskal", "dfs")).path, solved.path);
+    t.checkExpect(cache.stats().misses, 3L);
+    // room for one 64x64 maze, so each new seed evicts the last one
+    long room = 64 + 8 * 2 * 64 + 100;
+    MazeCache small = new MazeCache(room);
+    small.maze(new MazeSpec(64, 64, 1));
+    small.maze(new MazeSpec(64, 64, 2));
+    small.maze(new MazeSpec(64, 64, 1));
+    t.checkExpect(small.stats().misses, 3L);
+    t.checkExpect(small.stats().evictions, 2L);
+    t.checkExpect(small.stats().entries, 1);
+    t.checkExpect(small.stats().bytes <= room, true);
+    // an entry bigger than the whole cache is built but not kept
+    small.maze(new MazeSpec(200, 200, 1));
+    t.checkExpect(small.stats().entries, 1);
+    // threads asking for the same spec at once build it only once
+    MazeCache shared = new MazeCache(1 << 24);
+    MazeSpec big = new MazeSpec(300, 300, 9);
+    Thread[] threads = new Thread[8];
+    int[][] paths = new int[threads.length][];
+    for (int i = 0; i < threads.length; i++) {
+      int index = i;
+      threads[i] = Thread.ofVirtual().start(() -> paths[index] = shared.solution(big).path);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    t.checkExpect(shared.stats().misses, 2L);
+    t.checkExpect(shared.stats().hits + shared.stats().coalesced, 7L);
+    for (int[] path : paths) {
+      t.checkExpect(path, paths[0]);
+    }
+    // a spec without a solver names only a maze, so asking for its solution fails rather
+    // than finding the maze, whether the maze is cached yet or not
+    MazeSpec unsolved = new MazeSpec(12, 9, 4, "kruskal", null);
+    MazeCache cold = new MazeCache(1 << 20);
+    t.checkException(new IllegalArgumentException("A solution needs a solver, was null"), cold,
+        "solution", unsolved);
+    t.checkExpect(cold.stats().misses, 0L);
+    t.checkExpect(cold.maze(unsolved), new KruskalGenerator().generate(12, 9, 4));
+    t.checkException(new IllegalArgumentException("A solution needs a solver, was null"), cold,
+        "solution", unsolved);
+    // a maze and its solution are kept as two entries
+    MazeSpec solvable = new MazeSpec(12, 9, 4, "kruskal", "bfs");
+    t.checkExpect(cold.solution(solvable).path.length > 0, true);
+    t.checkExpect(cold.maze(solvable), new KruskalGenerator().generate(12, 9, 4));
+    t.checkExpect(cold.stats().entries, 2);
+    t.checkException(new IllegalArgumentException("The limit must not be negative, was -1"),
+        this, "makeCache", -1L);
+  }
+
+  // Creates a cache, used to test the constructor
+  MazeCache makeCache(long maxBytes) {
+    return new MazeCache(maxBytes);
+  }
+
+  // Tests that every cell of a flow field steps along a shortest path to the goal,
+  // and that building it in parallel gives the same field
+  void testFlowField(Tester t) {
+    MazeGrid g = new KruskalGenerator().generate(45, 31, 6);
+    int goal = g.size() - 1;
+    FlowField field = new FlowField(g, goal);
+    for (int cell = 0; cell < g.size(); cell += 7) {
+      int[] path = new BreadthFirstSolver().solve(g, cell, goal).path;
+      t.checkExpect(field.distance(cell), path.length - 1);
+      int at = cell;
+      for (int i = 0; i < field.distance(cell); i++) {
+        int next = field.next(at);
+        int[] out = new int[4];
+        int count = g.openNeighbors(at, out);
+        t.checkExpect(Arrays.stream(out, 0, count).anyMatch(c -> c == next), true);
+        at = next;
+      }
+      t.checkExpect(at, goal);
+    }
+    t.checkExpect(field.next(goal), goal);
+    // every agent reaches the goal within the largest distance
+    int[] agents = { 0, 44, 30 * 45, 700, goal };
+    int steps = 0;
+    while (field.step(agents) < agents.length) {
+      steps++;
+    }
+    t.checkExpect(steps <= g.size(), true);
+    t.checkExpect(agents, new int[] { goal, goal, goal, goal, goal });
+    // cells walled off from the goal stay where they are
+    FlowField walled = new FlowField(new MazeGrid(5, 5), 12);
+    t.checkExpect(walled.distance(0), -1);
+    t.checkExpect(walled.next(0), 0);
+    t.checkExpect(walled.distance(12), 0);
+    // a 1 cell wide corridor moves agents up towards a goal at the top
+    FlowField corridor = new FlowField(new BacktrackerGenerator().generate(1, 9, 1), 0);
+    t.checkExpect(corridor.next(8), 7);
+
+    // an open field has a wide frontier, so its levels are expanded in parallel
+    MazeGrid open = new MazeGrid(400, 300);
+    for (int y = 0; y < 300; y++) {
+      for (int x = 0; x < 400; x++) {
+        if (x + 1 < 400 && (x + y) % 11 != 0) {
+          open.removeRightWall(x, y);
+        }
+        if (y + 1 < 300 && (x * y) % 13 != 1) {
+          open.removeBottomWall(x, y);
+        }
+      }
+    }
+    ForkJoinPool pool = new ForkJoinPool(4);
+    FlowField parallel = new FlowField(open, 200 * 400 + 150, pool);
+    FlowField sequential = new FlowField(open, 200 * 400 + 150);
+    for (int cell = 0; cell < open.size(); cell++) {
+      t.checkExpect(parallel.distance(cell), sequential.distance(cell));
+      t.checkExpect(parallel.next(cell), sequential.next(cell));
+    }
+    t.checkExpect(parallel.distance(0), 200 + 150);
+    pool.shutdown();
+    t.checkException(new IllegalArgumentException("Goal 25 is not a cell of the maze"), this,
+        "makeField", 25);
+  }
+
+  // Builds a flow field on a 5x5 grid, used to test the constructor
+  FlowField makeField(int goal) {
+    return new FlowField(new MazeGrid(5, 5), goal);
+  }
+
+  // Solves a maze on the calling thread with the named solver, used to test solveAsync
+  CompletableFuture<Solution> solveNamed(MazeGrid g, String solver) {
+    return AsyncMazes.solveAsync(g, 0, g.size() - 1, solver, done -> { }, Runnable::run);
+  }
+
+  // Tests that async jobs report progress, and stop once cancelled or timed out
+  void testAsyncMazes(Tester t) throws Exception {
+    ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    AtomicLong reported = new AtomicLong();
+    MazeGrid g = AsyncMazes.generateAsync(new KruskalGenerator(), 600, 400, 3,
+        reported::set, executor).get();
+    t.checkExpect(g, new KruskalGenerator().generate(600, 400, 3));
+    t.checkExpect(reported.get() > 0, true);
+    Solution solution = AsyncMazes.solveAsync(g, 0, g.size() - 1, false, reported::set,
+        executor).get();
+    t.checkExpect(solution.path, new BreadthFirstSolver().solve(g, 0, g.size() - 1).path);
+    t.checkExpect(reported.get(), (long) solution.expanded);
+    Solution astar = AsyncMazes.solveAsync(g, 0, g.size() - 1, "astar", reported::set,
+        executor).get();
+    t.checkExpect(astar.path, new AStarSolver().solve(g, 0, g.size() - 1).path);
+    t.checkExpect(reported.get(), (long) astar.expanded);
+    t.checkException(new IllegalArgumentException("Cannot solve in steps with deadend"), this,
+        "solveNamed", g, "deadend");
+    // Eller's algorithm reports after every row, the last time with every cell
+    AtomicLong rows = new AtomicLong();
+    AsyncMazes.generateAsync(new EllerGenerator(), 30, 20, 1, rows::set, executor).get();
+    t.checkExpect(rows.get(), 600L);
+    // every generator reports before it has done a whole maze's worth of work, and stops
+    // once the listener gives up
+    for (String name : MazeGenerator.NAMES) {
+      AtomicLong first = new AtomicLong();
+      CompletableFuture<MazeGrid> stopped = AsyncMazes.generateAsync(MazeGenerator.of(name),
+          300, 300, 1, done -> {
+            if (done > 0) {
+              first.compareAndSet(0, done);
+              throw new CancellationException("Enough");
+            }
+          }, executor);
+      t.checkExpect(stopped.handle((m, e) -> e != null).get(), true);
+      t.checkNumRange(first.get(), 1L, 90000L);
+    }
+
+    // cancelling stops Kruskal's algorithm at its next check, the listener holds the
+    // work until the future is cancelled so that it cannot finish first
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch cancelled = new CountDownLatch(1);
+    AtomicLong last = new AtomicLong();
+    CompletableFuture<MazeGrid> big = AsyncMazes.generateAsync(new KruskalGenerator(), 2000,
+        2000, 1, done -> {
+          last.set(done);
+          if (done > 0) {
+            started.countDown();
+            this.awaitQuietly(cancelled);
+          }
+        }, executor);
+    started.await();
+    big.cancel(false);
+    cancelled.countDown();
+    t.checkExpect(big.isCancelled(), true);
+    // a deadline stops a search at its next check
+    CountDownLatch timedOut = new CountDownLatch(1);
+    CompletableFuture<Solution> late = AsyncMazes.solveAsync(g, 0, g.size() - 1, true,
+        done -> this.awaitQuietly(timedOut), executor).orTimeout(1, TimeUnit.MILLISECONDS);
+    late.whenComplete((s, e) -> timedOut.countDown());
+    t.checkException(new ExecutionException(new TimeoutException()), late, "get");
+    // a listener that gives up stops the work as well
+    CompletableFuture<Solution> refused = AsyncMazes.solveAsync(g, 0, g.size() - 1, false,
+        done -> {
+          if (done > 0) {
+            throw new CancellationException("Enough");
+          }
+        }, executor);
+    t.checkExpect(refused.handle((s, e) -> e.getMessage()).get(), "Enough");
+    executor.shutdown();
+    t.checkExpect(executor.awaitTermination(10, TimeUnit.SECONDS), true);
+    t.checkExpect(last.get(), 65536L);
+  }
+
+  // Waits for the latch, used to hold async work at a progress report
+  void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // Tests that the bit parallel flood fill agrees with breadth first search, on perfect
+  // mazes, mazes with loops and walled off parts, and rows of one or several words
+  void testBitFloodFill(Tester t) {
+    int[][] sizes = { { 1, 1 }, { 1, 40 }, { 40, 1 }, { 64, 20 }, { 65, 17 }, { 200, 30 } };
+    Random random = new Random(4);
+    for (int[] size : sizes) {
+      MazeGrid g = new KruskalGenerator().generate(size[0], size[1], 5);
+      // knock out some walls for loops, and put some back to wall parts off
+      for (int i = 0; i < g.size() / 4; i++) {
+        int x = random.nextInt(g.width);
+        int y = random.nextInt(g.height);
+        if (i % 3 == 0) {
+          g.addRightWall(x, y);
+          g.addBottomWall(x, y);
+        }
+        else {
+          g.removeRightWall(x, y);
+          g.removeBottomWall(x, y);
+        }
+      }
+      BitFloodFill fill = new BitFloodFill(g);
+      for (int q = 0; q < 30; q++) {
+        int start = random.nextInt(g.size());
+        int goal = random.nextInt(g.size());
+        int[] path = new BreadthFirstSolver().solve(g, start, goal).path;
+        t.checkExpect(fill.reachable(start, goal), path.length > 0);
+        t.checkExpect(fill.distance(start, goal), path.length - 1);
+      }
+    }
+    // the outside walls hold even when their bits say otherwise
+    MazeGrid open = new MazeGrid(70, 3);
+    open.reset();
+    for (int y = 0; y < 3; y++) {
+      for (int x = 0; x < 70; x++) {
+        open.removeRightWall(x, y);
+        open.removeBottomWall(x, y);
+      }
+    }
+    BitFloodFill field = new BitFloodFill(open);
+    t.checkExpect(field.distance(69, 70), 70);
+    t.checkExpect(field.distance(5, 69), 64);
+    t.checkExpect(field.distance(0, 209), 71);
+    t.checkExpect(field.reachable(69, 140), true);
+  }
+}
+
@@ -0,0 +1,53 @@
+package mazesolver;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Measures Maze.makeScene on a solved maze. Maze lives in the default package,
+// so it is reached through reflection.
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBenchmark {
+  @Param({ "10", "100", "1000" })
+  public int size;
+  Object maze;
+  Method makeScene;
+
+  // Builds and solves the maze that is drawn
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    Class<?> mazeClass = Class.forName("Maze");
+    Constructor<?> constructor = mazeClass.getDeclaredConstructor(int.class, int.class);
+    constructor.setAccessible(true);
+    this.maze = constructor.newInstance(this.size, this.size);
+    Method onKeyEvent = mazeClass.getMethod("onKeyEvent", String.class);
+    onKeyEvent.setAccessible(true);
+    onKeyEvent.invoke(this.maze, "b");
+    this.makeScene = mazeClass.getMethod("makeScene");
+    this.makeScene.setAccessible(true);
+  }
+
+  // Draws one frame
+  @Benchmark
+  public Object makeScene() throws Exception {
+    return this.makeScene.invoke(this.maze);
+  }
+}
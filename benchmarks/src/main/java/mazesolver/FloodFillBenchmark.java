@@ -0,0 +1,65 @@
+package mazesolver;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Compares the bit parallel flood fill with breadth first search from the top left to
+// the bottom right, on perfect mazes and on mazes with a tenth of their walls knocked out
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FloodFillBenchmark {
+  @Param({ "100", "1000", "4096" })
+  public int size;
+  @Param({ "false", "true" })
+  public boolean loops;
+  MazeGrid maze;
+  BitFloodFill fill;
+
+  // Generates the maze and knocks out walls if asked to
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.maze = new KruskalGenerator().generate(this.size, this.size, 42);
+    if (this.loops) {
+      SplittableRandom random = new SplittableRandom(42);
+      for (int i = 0; i < this.maze.size() / 10; i++) {
+        this.maze.removeRightWall(random.nextInt(this.size - 1), random.nextInt(this.size));
+      }
+    }
+    this.fill = new BitFloodFill(this.maze);
+  }
+
+  // Finds the distance one cell at a time
+  @Benchmark
+  public int bfs() {
+    return new BreadthFirstSolver().solve(this.maze, 0, this.maze.size() - 1).path.length - 1;
+  }
+
+  // Checks reachability a run of cells at a time
+  @Benchmark
+  public boolean reachable() {
+    return this.fill.reachable(0, this.maze.size() - 1);
+  }
+
+  // Finds the distance 64 cells at a time
+  @Benchmark
+  public int distance() {
+    return this.fill.distance(0, this.maze.size() - 1);
+  }
+}
@@ -0,0 +1,92 @@
+package mazesolver;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Measures each phase of generating a square maze with Kruskal's algorithm
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenerationBenchmark {
+  @Param({ "10", "100", "1000", "4096" })
+  public int size;
+  KruskalGenerator kruskal;
+  MazeGrid grid;
+  int[] edges;
+  int[] weights;
+  int[] sortedEdges;
+
+  // Builds the input of every phase once
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.kruskal = new KruskalGenerator();
+    this.grid = new MazeGrid(this.size, this.size);
+    this.edges = this.kruskal.createEdges(this.grid);
+    this.weights = this.kruskal.createWeights(this.edges.length, 42);
+    this.sortedEdges = this.kruskal.sortEdges(this.edges, this.weights);
+  }
+
+  // Allocates a grid with every wall standing
+  @Benchmark
+  public MazeGrid createGrid() {
+    return new MazeGrid(this.size, this.size);
+  }
+
+  // Lists the walls between neighbouring cells
+  @Benchmark
+  public int[] createEdges() {
+    return this.kruskal.createEdges(this.grid);
+  }
+
+  // Draws a random weight for every wall
+  @Benchmark
+  public int[] createWeights() {
+    return this.kruskal.createWeights(this.edges.length, 42);
+  }
+
+  // Orders the walls by weight
+  @Benchmark
+  public int[] sortEdges() {
+    return this.kruskal.sortEdges(this.edges, this.weights);
+  }
+
+  // Knocks down walls through union-find, on a fresh grid every call
+  @Benchmark
+  public MazeGrid removeCycles(FreshGrid fresh) {
+    this.kruskal.removeCycles(fresh.grid, this.sortedEdges);
+    return fresh.grid;
+  }
+
+  // Runs every phase
+  @Benchmark
+  public MazeGrid generate() {
+    return this.kruskal.generate(this.size, this.size, 42);
+  }
+
+  // Holds a grid with every wall standing for each call of removeCycles
+  @State(Scope.Thread)
+  public static class FreshGrid {
+    MazeGrid grid;
+
+    // Allocates the grid outside of the measured time
+    @Setup(Level.Invocation)
+    public void setUp(GenerationBenchmark benchmark) {
+      this.grid = new MazeGrid(benchmark.size, benchmark.size);
+    }
+  }
+}
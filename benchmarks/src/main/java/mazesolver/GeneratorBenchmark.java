@@ -0,0 +1,46 @@
+package mazesolver;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Compares the generators on square mazes. Run through BenchmarkMain, the allocation
+// rate per operation shows the memory each one needs on top of the grid.
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratorBenchmark {
+  @Param({ "10", "100", "1000", "4096" })
+  public int size;
+  @Param({ "kruskal", "tiled", "eller", "backtracker", "prim", "wilson", "binary",
+      "sidewinder" })
+  public String generator;
+  MazeGenerator carver;
+  long seed;
+
+  // Looks up the generator once
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.carver = MazeGenerator.of(this.generator);
+  }
+
+  // Allocates a grid and carves a new maze into it
+  @Benchmark
+  public MazeGrid generate() {
+    return this.carver.generate(this.size, this.size, this.seed++);
+  }
+}
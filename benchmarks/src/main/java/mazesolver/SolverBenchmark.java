@@ -0,0 +1,45 @@
+package mazesolver;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Measures solving a square maze from the top left to the bottom right
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+  @Param({ "10", "100", "1000", "4096" })
+  public int size;
+  @Param({ "bfs", "dfs", "astar", "deadend", "deadend-parallel" })
+  public String solver;
+  MazeGrid maze;
+  MazeSolver mazeSolver;
+
+  // Generates the same maze for every solver
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.maze = new KruskalGenerator().generate(this.size, this.size, 42);
+    this.mazeSolver = MazeSolver.of(this.solver);
+  }
+
+  // Finds the path through the maze
+  @Benchmark
+  public Solution solve() {
+    return this.mazeSolver.solve(this.maze, 0, this.maze.size() - 1);
+  }
+}
@@ -0,0 +1,59 @@
+package mazesolver;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Measures streaming generation with Eller's algorithm into a channel that drops the bytes,
+// so the result is the cost of generating and packing rows without any disk
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamingBenchmark {
+  @Param({ "10", "100", "1000", "4096" })
+  public int size;
+  final EllerGenerator eller = new EllerGenerator();
+  final WritableByteChannel discard = new WritableByteChannel() {
+    boolean open = true;
+
+    public int write(ByteBuffer src) {
+      int count = src.remaining();
+      src.position(src.limit());
+      return count;
+    }
+
+    public boolean isOpen() {
+      return this.open;
+    }
+
+    public void close() {
+      this.open = false;
+    }
+  };
+
+  // Writes every row of a square maze
+  @Benchmark
+  public StreamReport stream() throws Exception {
+    return this.eller.stream(this.size, this.size, 42, this.discard);
+  }
+
+  // Carves a square maze into a grid in memory
+  @Benchmark
+  public MazeGrid generate() {
+    return this.eller.generate(this.size, this.size, 42);
+  }
+}
@@ -0,0 +1,55 @@
+package mazesolver;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Measures tiled generation for a number of worker threads, to see how it scales with cores
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TiledGenerationBenchmark {
+  @Param({ "1000", "4096" })
+  public int size;
+  @Param({ "256" })
+  public int tiles;
+  @Param({ "1", "4", "16", "32" })
+  public int threads;
+  ForkJoinPool pool;
+  TiledGenerator generator;
+
+  // Starts the worker threads
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.pool = new ForkJoinPool(this.threads);
+    this.generator = new TiledGenerator(this.tiles, this.pool);
+  }
+
+  // Stops the worker threads
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    this.pool.shutdown();
+  }
+
+  // Carves every tile and joins them
+  @Benchmark
+  public MazeGrid generate() {
+    return this.generator.generate(this.size, this.size, 42);
+  }
+}
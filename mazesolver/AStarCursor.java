@@ -0,0 +1,108 @@
+package mazesolver;
+
+import java.util.Arrays;
+
+// Represents an A* search guided by the Manhattan distance to the goal that runs a few
+// cells at a time. The heap, distances and closed cells are kept between calls to
+// advance, like the queue of a SearchCursor.
+public class AStarCursor implements SteppedSearch {
+  final MazeGrid maze;
+  final int start;
+  final int goal;
+  final int goalX;
+  final int goalY;
+  final int[] parent;
+  final int[] distance;
+  final long[] closed;
+  final int[] neighbors = new int[4];
+  // entries pack the estimate in the high half and the cell in the low half,
+  // a cell may be queued again when a shorter way to it is found
+  long[] heap = new long[16];
+  int size;
+  int expanded;
+  int frontier;
+  Solution solution;
+
+  // Starts a search from start to goal
+  public AStarCursor(MazeGrid maze, int start, int goal) {
+    this.maze = maze;
+    this.start = start;
+    this.goal = goal;
+    this.goalX = maze.x(goal);
+    this.goalY = maze.y(goal);
+    this.parent = new int[maze.size()];
+    this.distance = new int[maze.size()];
+    this.closed = new long[(maze.size() + 63) >>> 6];
+    Arrays.fill(this.distance, Integer.MAX_VALUE);
+    this.distance[start] = 0;
+    this.parent[start] = start;
+    this.heap[this.size++] = (long) this.estimate(start) << 32 | start;
+    this.frontier = 1;
+  }
+
+  // Checks if the search has found the goal or run out of cells
+  public boolean finished() {
+    return this.solution != null;
+  }
+
+  // Returns how many cells have been expanded so far
+  public int expanded() {
+    return this.expanded;
+  }
+
+  // Returns the path once the search has finished, or null before then
+  public Solution solution() {
+    return this.solution;
+  }
+
+  // Expands up to steps cells in order of distance travelled plus estimated distance
+  // left, writing each into expandedCells unless it is null, and returns how many it
+  // expanded
+  public int advance(int steps, int[] expandedCells) {
+    int count = 0;
+    while (count < steps && this.solution == null) {
+      if (this.size == 0) {
+        this.solution = Solution.unreachable(this.expanded, this.frontier);
+        break;
+      }
+      int cell = (int) this.heap[0];
+      this.heap[0] = this.heap[--this.size];
+      AStarSolver.siftDown(this.heap, this.size, 0);
+      if (Solution.isMarked(this.closed, cell)) {
+        continue;
+      }
+      Solution.mark(this.closed, cell);
+      this.expanded++;
+      if (expandedCells != null) {
+        expandedCells[count] = cell;
+      }
+      count++;
+      if (cell == this.goal) {
+        this.solution = Solution.fromParents(this.parent, this.start, this.goal, this.expanded,
+            this.frontier);
+        break;
+      }
+      int found = this.maze.openNeighbors(cell, this.neighbors);
+      for (int i = 0; i < found; i++) {
+        int next = this.neighbors[i];
+        int d = this.distance[cell] + 1;
+        if (d < this.distance[next]) {
+          this.distance[next] = d;
+          this.parent[next] = cell;
+          if (this.size == this.heap.length) {
+            this.heap = Arrays.copyOf(this.heap, this.size * 2);
+          }
+          this.heap[this.size] = (long) (d + this.estimate(next)) << 32 | next;
+          AStarSolver.siftUp(this.heap, this.size++);
+        }
+      }
+      this.frontier = Math.max(this.frontier, this.size);
+    }
+    return count;
+  }
+
+  // Returns the Manhattan distance from cell to the goal
+  private int estimate(int cell) {
+    return Math.abs(this.maze.x(cell) - this.goalX) + Math.abs(this.maze.y(cell) - this.goalY);
+  }
+}
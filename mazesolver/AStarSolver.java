@@ -0,0 +1,45 @@
+package mazesolver;
+
+// Solves a maze with A* search guided by the Manhattan distance to the goal
+public class AStarSolver implements MazeSolver {
+
+  // Finds a shortest path and reports it as the astar solve phase
+  public Solution solve(MazeGrid maze, int start, int goal) {
+    Metrics.Phase phase = Metrics.start("astar", "solve", maze);
+    return Solution.finish(phase, this.search(maze, start, goal));
+  }
+
+  // Runs an AStarCursor until it finishes
+  Solution search(MazeGrid maze, int start, int goal) {
+    AStarCursor cursor = new AStarCursor(maze, start, goal);
+    cursor.advance(Integer.MAX_VALUE, null);
+    return cursor.solution();
+  }
+
+  // Moves the entry at i up until its parent is smaller
+  static void siftUp(long[] heap, int i) {
+    long entry = heap[i];
+    while (i > 0 && heap[(i - 1) >>> 1] > entry) {
+      heap[i] = heap[(i - 1) >>> 1];
+      i = (i - 1) >>> 1;
+    }
+    heap[i] = entry;
+  }
+
+  // Moves the entry at i down until both children are larger
+  static void siftDown(long[] heap, int size, int i) {
+    long entry = heap[i];
+    while (2 * i + 1 < size) {
+      int child = 2 * i + 1;
+      if (child + 1 < size && heap[child + 1] < heap[child]) {
+        child++;
+      }
+      if (heap[child] >= entry) {
+        break;
+      }
+      heap[i] = heap[child];
+      i = child;
+    }
+    heap[i] = entry;
+  }
+}
@@ -0,0 +1,89 @@
+package mazesolver;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.LongConsumer;
+
+// Generates and solves mazes on an executor, handing back a future. The work checks its
+// future every so often and gives up as soon as the future is done, whether it was
+// cancelled or timed out with orTimeout, so abandoned work stops using a core and its
+// arrays can be collected straight away. Progress is passed to a listener from the
+// thread doing the work.
+public class AsyncMazes {
+  // Cells a search expands between two checks
+  static final int SOLVE_STEPS = 1 << 14;
+
+  private AsyncMazes() {
+  }
+
+  // Returns a future of a new maze. Every generator reports its progress at least every
+  // MazeGenerator.REPORT_EVERY (65,536) steps or after every row, so it stops at most that
+  // far past being cancelled. Tiled mazes report from the threads of their pool.
+  public static CompletableFuture<MazeGrid> generateAsync(MazeGenerator generator, int width,
+      int height, long seed, LongConsumer progress, Executor executor) {
+    CompletableFuture<MazeGrid> result = new CompletableFuture<>();
+    executor.execute(() -> {
+      Progress check = AsyncMazes.checking(result, progress);
+      try {
+        check.report(0);
+        MazeGrid grid = new MazeGrid(width, height);
+        generator.carve(grid, seed, check);
+        result.complete(grid);
+      }
+      catch (Throwable e) {
+        // does nothing if the work gave up because the future was already done
+        result.completeExceptionally(e);
+      }
+    });
+    return result;
+  }
+
+  // Returns a future of the path from start to goal, found by breadth first search or
+  // depth first search if asked to. Reports the cells expanded so far every SOLVE_STEPS
+  // cells.
+  public static CompletableFuture<Solution> solveAsync(MazeGrid maze, int start, int goal,
+      boolean depthFirst, LongConsumer progress, Executor executor) {
+    return AsyncMazes.solveAsync(maze, start, goal, depthFirst ? "dfs" : "bfs", progress,
+        executor);
+  }
+
+  // Returns a future of the path from start to goal found by the named solver: bfs, dfs
+  // or astar. Reports the cells expanded so far every SOLVE_STEPS cells.
+  public static CompletableFuture<Solution> solveAsync(MazeGrid maze, int start, int goal,
+      String solver, LongConsumer progress, Executor executor) {
+    if (!solver.equals("bfs") && !solver.equals("dfs") && !solver.equals("astar")) {
+      throw new IllegalArgumentException("Cannot solve in steps with " + solver);
+    }
+    CompletableFuture<Solution> result = new CompletableFuture<>();
+    executor.execute(() -> {
+      Progress check = AsyncMazes.checking(result, progress);
+      try {
+        check.report(0);
+        SteppedSearch search = solver.equals("astar") ? new AStarCursor(maze, start, goal)
+            : new SearchCursor(maze, start, goal, solver.equals("dfs"));
+        while (!search.finished()) {
+          search.advance(AsyncMazes.SOLVE_STEPS, null);
+          check.report(search.expanded());
+        }
+        result.complete(search.solution());
+      }
+      catch (Throwable e) {
+        // does nothing if the work gave up because the future was already done
+        result.completeExceptionally(e);
+      }
+    });
+    return result;
+  }
+
+  // Returns a check that stops the work once the future is done, and passes the
+  // progress on to the listener otherwise
+  static Progress checking(CompletableFuture<?> result, LongConsumer progress) {
+    return done -> {
+      if (result.isDone()) {
+        throw new CancellationException("Abandoned after " + done);
+      }
+      progress.accept(done);
+    };
+  }
+}
@@ -0,0 +1,60 @@
+package mazesolver;
+
+import java.util.SplittableRandom;
+
+// Generates a maze with the recursive backtracker, a randomised depth first search:
+// walk to a random unvisited neighbour, and back up when there is none. The path so far
+// is an explicit stack of cells rather than the call stack, so even a maze whose path
+// runs through every cell cannot overflow it. Gives long, winding corridors with few
+// dead ends.
+public class BacktrackerGenerator implements MazeGenerator {
+  // Carves the maze into the grid
+  public void carve(MazeGrid grid, long seed) {
+    this.carve(grid, seed, Progress.NONE);
+  }
+
+  // Carves the maze, reporting the steps taken every REPORT_EVERY steps
+  public void carve(MazeGrid grid, long seed, Progress progress) {
+    Metrics.Phase phase = Metrics.start("backtracker", "carve", grid);
+    long steps = this.backtrack(grid, seed, progress);
+    Metrics.finish(phase, steps, 0);
+    progress.report(steps);
+  }
+
+  // Carves a maze on any topology the same way
+  public void carve(TopologyMaze maze, long seed) {
+    Metrics.Phase phase = Metrics.start("backtracker", "carve", maze);
+    Metrics.finish(phase, this.backtrack(maze, seed, Progress.NONE), 0);
+  }
+
+  // Walks the maze from a random cell, opening walls as it goes, and returns the steps
+  // it took
+  long backtrack(CellGraph grid, long seed, Progress progress) {
+    SplittableRandom random = new SplittableRandom(seed);
+    int n = grid.size();
+    long[] visited = new long[(n + 63) >>> 6];
+    int[] stack = new int[n];
+    int[] choices = new int[grid.maxDegree()];
+    int top = 0;
+    int start = random.nextInt(n);
+    Solution.mark(visited, start);
+    stack[top++] = start;
+    long steps = 0;
+    while (top > 0) {
+      int cell = stack[top - 1];
+      int count = grid.neighbors(cell, visited, false, choices);
+      if ((++steps & (MazeGenerator.REPORT_EVERY - 1)) == 0) {
+        progress.report(steps);
+      }
+      if (count == 0) {
+        top--;
+        continue;
+      }
+      int next = choices[count == 1 ? 0 : random.nextInt(count)];
+      grid.open(cell, next);
+      Solution.mark(visited, next);
+      stack[top++] = next;
+    }
+    return steps;
+  }
+}
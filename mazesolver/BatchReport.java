@@ -0,0 +1,25 @@
+package mazesolver;
+
+// Represents how many jobs a batch ran, how many of them failed and how long it took
+public class BatchReport {
+  public final long jobs;
+  public final long failures;
+  public final long nanos;
+
+  public BatchReport(long jobs, long failures, long nanos) {
+    this.jobs = jobs;
+    this.failures = failures;
+    this.nanos = nanos;
+  }
+
+  // Returns the number of mazes finished per second
+  public double mazesPerSecond() {
+    return this.nanos == 0 ? 0 : this.jobs * 1e9 / this.nanos;
+  }
+
+  @Override
+  public String toString() {
+    return this.jobs + " mazes, " + this.failures + " failed in " + this.nanos / 1000000 + " ms ("
+        + Math.round(this.mazesPerSecond()) + " mazes/s)";
+  }
+}
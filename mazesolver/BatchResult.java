@@ -0,0 +1,32 @@
+package mazesolver;
+
+// Represents the outcome of one job of a batch: how long the path was, how many cells
+// the solver expanded and how long each step took. If the job threw, failure holds
+// what it threw and the other numbers are zero.
+public class BatchResult {
+  public final MazeSpec spec;
+  public final int pathLength;
+  public final int expanded;
+  public final long generateNanos;
+  public final long solveNanos;
+  public final Throwable failure;
+
+  public BatchResult(MazeSpec spec, int pathLength, int expanded, long generateNanos,
+      long solveNanos, Throwable failure) {
+    this.spec = spec;
+    this.pathLength = pathLength;
+    this.expanded = expanded;
+    this.generateNanos = generateNanos;
+    this.solveNanos = solveNanos;
+    this.failure = failure;
+  }
+
+  @Override
+  public String toString() {
+    if (this.failure != null) {
+      return this.spec + ": " + this.failure;
+    }
+    return this.spec + ": path " + this.pathLength + ", " + this.expanded + " expanded, generated in "
+        + this.generateNanos / 1000 + " us, solved in " + this.solveNanos / 1000 + " us";
+  }
+}
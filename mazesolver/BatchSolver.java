@@ -0,0 +1,78 @@
+package mazesolver;
+
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+// Generates and solves a stream of mazes, each on its own virtual thread. At most
+// maxJobs mazes are alive at once: a job holds a permit from the moment it is started
+// until its result has been handed on, and the next spec is only read from the stream
+// once a permit is free. Finished jobs wait in a queue with room for maxJobs results,
+// and are handed on in the order they finish on the thread that called run, so the
+// consumer never has to be thread safe.
+public class BatchSolver {
+  final int maxJobs;
+
+  public BatchSolver(int maxJobs) {
+    if (maxJobs < 1) {
+      throw new IllegalArgumentException("At least one job must run at a time, was " + maxJobs);
+    }
+    this.maxJobs = maxJobs;
+  }
+
+  // Runs every spec and hands each result to results as soon as it is ready
+  public BatchReport run(Iterator<MazeSpec> specs, Consumer<BatchResult> results)
+      throws InterruptedException {
+    long begin = System.nanoTime();
+    BlockingQueue<BatchResult> finished = new ArrayBlockingQueue<>(this.maxJobs);
+    Semaphore permits = new Semaphore(this.maxJobs);
+    long started = 0;
+    long delivered = 0;
+    long failures = 0;
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      while (specs.hasNext()) {
+        while (!permits.tryAcquire()) {
+          failures += this.deliver(finished.take(), permits, results);
+          delivered++;
+        }
+        MazeSpec spec = specs.next();
+        executor.execute(() -> finished.add(BatchSolver.runJob(spec)));
+        started++;
+      }
+      for (; delivered < started; delivered++) {
+        failures += this.deliver(finished.take(), permits, results);
+      }
+    }
+    return new BatchReport(started, failures, System.nanoTime() - begin);
+  }
+
+  // Hands on one result and frees its permit, returning 1 if the job failed
+  int deliver(BatchResult result, Semaphore permits, Consumer<BatchResult> results) {
+    permits.release();
+    results.accept(result);
+    return result.failure == null ? 0 : 1;
+  }
+
+  // Generates and solves one maze from its top left to its bottom right cell
+  static BatchResult runJob(MazeSpec spec) {
+    try {
+      MazeGenerator generator = MazeGenerator.of(spec.generator);
+      MazeSolver solver = MazeSolver.of(spec.solver);
+      long begin = System.nanoTime();
+      MazeGrid grid = generator.generate(spec.width, spec.height, spec.seed);
+      long generated = System.nanoTime();
+      Solution solution = solver.solve(grid, 0, grid.size() - 1);
+      long solved = System.nanoTime();
+      return new BatchResult(spec, solution.path.length, solution.expanded, generated - begin,
+          solved - generated, null);
+    }
+    catch (RuntimeException | Error e) {
+      // the result must still be queued or run would wait for it forever
+      return new BatchResult(spec, 0, 0, 0, 0, e);
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package mazesolver;
+
+import java.util.SplittableRandom;
+
+// Generates a maze with the binary tree algorithm: every cell but the bottom right one
+// opens either its right or its bottom wall, picked by a coin flip, and cells on the
+// last row or column have only one choice. Every cell leads towards the bottom right
+// corner, so the result is a tree, with a straight corridor along the bottom and right
+// edges. Each cell depends on nothing else, so whole words of walls are carved from one
+// random long, and no memory is needed beyond the grid.
+public class BinaryTreeGenerator implements MazeGenerator {
+  // Carves the maze into the grid
+  public void carve(MazeGrid grid, long seed) {
+    this.carve(grid, seed, Progress.NONE);
+  }
+
+  // Carves the maze, reporting the cells carved after every row
+  public void carve(MazeGrid grid, long seed, Progress progress) {
+    Metrics.Phase phase = Metrics.start("binary", "carve", grid);
+    SplittableRandom random = new SplittableRandom(seed);
+    int last = grid.width - 1;
+    for (int y = 0; y < grid.height; y++) {
+      int base = 2 * y * grid.stride;
+      for (int i = 0; i < grid.stride; i++) {
+        // the cells of this word that have a right neighbour
+        long inside = i < grid.stride - 1 ? -1L : (2L << (last & 63)) - 1;
+        long right = i == last >>> 6 ? inside & ~(1L << last) : inside;
+        if (y == grid.height - 1) {
+          grid.clearWallBits(base + i, right);
+        }
+        else {
+          long coins = random.nextLong();
+          grid.clearWallBits(base + i, coins & right);
+          grid.clearWallBits(base + grid.stride + i, inside & ~(coins & right));
+        }
+      }
+      progress.report((y + 1L) * grid.width);
+    }
+    Metrics.finish(phase, grid.words(), 0);
+  }
+}
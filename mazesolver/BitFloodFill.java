@@ -0,0 +1,212 @@
+package mazesolver;
+
+// Answers reachability and distance queries on a maze 64 cells at a time. Reached cells
+// are kept as rows of words laid out like one of the grid's wall bitsets, so a word of
+// reached cells lines up with a word of right walls and a word of bottom walls, and
+// moving every cell of a word one step is a shift and a mask.
+//
+// Reachability floods a whole run of cells joined by open right walls at once: with the
+// open walls as a mask, adding the seeds to it carries through each run they are in, and
+// the bits the carry flipped are the cells reached. Reversing the bits does the same
+// leftwards. Words that gain cells put their neighbours on a work list, so only words
+// next to the flood are looked at.
+//
+// Distance is breadth first search a level at a time: each word of the current level is
+// shifted in all four directions, masked by the walls and by the cells already reached,
+// and pushed into the words of the next level. Only words holding the level are read.
+public class BitFloodFill {
+  final MazeGrid maze;
+  // The number of words in one bitmap of cells
+  final int units;
+  // The last word of each row, and its bits whose cell is in the maze and not the last
+  // of the row, so could have a neighbour on its right
+  final int lastWord;
+  final long lastOpen;
+
+  public BitFloodFill(MazeGrid maze) {
+    this.maze = maze;
+    this.units = maze.stride * maze.height;
+    int last = maze.width - 1;
+    this.lastWord = last >>> 6;
+    this.lastOpen = (1L << (last & 63)) - 1;
+  }
+
+  // Returns the bits of word i of a row whose cell has an open wall to its right, given
+  // the index of the word of right walls. Cells beyond the last one are never reached, so
+  // only the last word needs a mask, to keep the last cell of the row from stepping out.
+  long openRight(int wall, int i) {
+    long open = ~this.maze.wallWord(wall);
+    return i == this.lastWord ? open & this.lastOpen : open;
+  }
+
+  // Returns the bits of a word whose cell has an open wall below it, given the index of
+  // the word of bottom walls
+  long openBottom(int wall) {
+    return ~this.maze.wallWord(wall);
+  }
+
+  // Checks if the goal can be reached from the start
+  public boolean reachable(int start, int goal) {
+    Metrics.Phase phase = Metrics.start("bitfill", "reach", this.maze);
+    int stride = this.maze.stride;
+    long[] reached = new long[this.units];
+    long[] queued = new long[(this.units + 63) >>> 6];
+    int[] work = new int[this.units];
+    int top = 0;
+    int startUnit = this.unit(start);
+    long startBit = 1L << this.maze.x(start);
+    work[top++] = startUnit;
+    Solution.mark(queued, startUnit);
+    int goalUnit = this.unit(goal);
+    long goalBit = 1L << this.maze.x(goal);
+    long flooded = 0;
+    while (top > 0 && (reached[goalUnit] & goalBit) == 0) {
+      int u = work[--top];
+      queued[u >>> 6] &= ~(1L << u);
+      flooded++;
+      int i = u % stride;
+      // the right walls of the word, its bottom walls are stride words later
+      int wall = 2 * u - i;
+      long right = this.openRight(wall, i);
+      long up = u >= stride ? this.openBottom(wall - stride) : 0;
+      long down = u + stride < this.units ? this.openBottom(wall + stride) : 0;
+      // pull in every cell that one step from a neighbouring word reaches, the start
+      // only counts as gained once its word is flooded
+      long seeds = u == startUnit ? reached[u] | startBit : reached[u];
+      if (up != 0) {
+        seeds |= reached[u - stride] & up;
+      }
+      if (down != 0) {
+        seeds |= reached[u + stride] & down;
+      }
+      if (i > 0) {
+        seeds |= (reached[u - 1] & this.openRight(wall - 1, i - 1)) >>> 63;
+      }
+      if (right < 0) {
+        seeds |= reached[u + 1] << 63;
+      }
+      long fill = BitFloodFill.fillRight(seeds, right);
+      // leftwards, cell x steps to x - 1 when bit x - 1 of right is open
+      fill = Long.reverse(BitFloodFill.fillRight(Long.reverse(fill), Long.reverse(right) >>> 1));
+      long gained = fill & ~reached[u];
+      if (gained == 0) {
+        continue;
+      }
+      reached[u] |= gained;
+      if ((gained & up) != 0) {
+        top = BitFloodFill.push(work, top, queued, u - stride);
+      }
+      if ((gained & down) != 0) {
+        top = BitFloodFill.push(work, top, queued, u + stride);
+      }
+      if (i > 0 && (gained & 1) != 0 && this.openRight(wall - 1, i - 1) < 0) {
+        top = BitFloodFill.push(work, top, queued, u - 1);
+      }
+      if ((gained & right) < 0) {
+        top = BitFloodFill.push(work, top, queued, u + 1);
+      }
+    }
+    Metrics.finish(phase, flooded, 0);
+    return (reached[goalUnit] & goalBit) != 0;
+  }
+
+  // Returns the number of passages on a shortest path from start to goal, or -1 if the
+  // goal cannot be reached
+  public int distance(int start, int goal) {
+    Metrics.Phase phase = Metrics.start("bitfill", "distance", this.maze);
+    int stride = this.maze.stride;
+    long[] visited = new long[this.units];
+    long[] frontier = new long[this.units];
+    long[] next = new long[this.units];
+    int[] active = new int[this.units];
+    int[] reached = new int[this.units];
+    int goalUnit = this.unit(goal);
+    long goalBit = 1L << this.maze.x(goal);
+    int startUnit = this.unit(start);
+    frontier[startUnit] = 1L << this.maze.x(start);
+    visited[startUnit] = frontier[startUnit];
+    active[0] = startUnit;
+    int size = 1;
+    int level = 0;
+    long words = 0;
+    while (size > 0 && (visited[goalUnit] & goalBit) == 0) {
+      level++;
+      words += size;
+      int count = 0;
+      // every word of the level pushes its cells one step into the words they reach
+      for (int a = 0; a < size; a++) {
+        int u = active[a];
+        long from = frontier[u];
+        frontier[u] = 0;
+        int i = u % stride;
+        int wall = 2 * u - i;
+        long right = this.openRight(wall, i);
+        long moved = from & right;
+        count = BitFloodFill.add(next, visited, reached, count, u, moved << 1 | (from >>> 1)
+            & right);
+        if (i > 0 && (from & 1) != 0) {
+          count = BitFloodFill.add(next, visited, reached, count, u - 1,
+              this.openRight(wall - 1, i - 1) & (1L << 63));
+        }
+        if (moved < 0) {
+          count = BitFloodFill.add(next, visited, reached, count, u + 1, 1);
+        }
+        if (u + stride < this.units) {
+          count = BitFloodFill.add(next, visited, reached, count, u + stride,
+              from & this.openBottom(wall + stride));
+        }
+        if (u >= stride) {
+          count = BitFloodFill.add(next, visited, reached, count, u - stride,
+              from & this.openBottom(wall - stride));
+        }
+      }
+      for (int c = 0; c < count; c++) {
+        visited[reached[c]] |= next[reached[c]];
+      }
+      long[] swap = frontier;
+      frontier = next;
+      next = swap;
+      int[] list = active;
+      active = reached;
+      reached = list;
+      size = count;
+    }
+    Metrics.finish(phase, words, 0);
+    return (visited[goalUnit] & goalBit) != 0 ? level : -1;
+  }
+
+  // Adds the cells not visited yet to word u of the next level, listing the word the
+  // first time it gets any, and returns the new number of words listed
+  static int add(long[] next, long[] visited, int[] listed, int count, int u, long cells) {
+    long fresh = cells & ~visited[u];
+    if (fresh != 0) {
+      if (next[u] == 0) {
+        listed[count++] = u;
+      }
+      next[u] |= fresh;
+    }
+    return count;
+  }
+
+  // Returns the index of the word holding the cell in a bitmap of cells
+  int unit(int cell) {
+    return this.maze.y(cell) * this.maze.stride + (this.maze.x(cell) >>> 6);
+  }
+
+  // Returns the seeds with every cell they reach by stepping right through open walls.
+  // Adding a seed to a run of set bits in open clears the run from the seed up and
+  // carries into the first closed bit after it, so the bits that change are the run
+  // from the seed to the cell it ends at.
+  static long fillRight(long seeds, long open) {
+    return ((open + (seeds & open)) ^ open) | seeds;
+  }
+
+  // Puts the word on the work list unless it is already there, and returns the new top
+  static int push(int[] work, int top, long[] queued, int u) {
+    if (!Solution.isMarked(queued, u)) {
+      Solution.mark(queued, u);
+      work[top++] = u;
+    }
+    return top;
+  }
+}
@@ -0,0 +1,49 @@
+package mazesolver;
+
+// Solves a maze with breadth first search, which finds a shortest path
+public class BreadthFirstSolver implements MazeSolver {
+
+  // Finds a shortest path and reports it as the bfs solve phase
+  public Solution solve(MazeGrid maze, int start, int goal) {
+    Metrics.Phase phase = Metrics.start("bfs", "solve", maze);
+    return Solution.finish(phase, this.search(maze, start, goal));
+  }
+
+  // Finds a shortest path through a maze of any shape and reports it as the bfs solve
+  // phase
+  public Solution solve(TopologyMaze maze, int start, int goal) {
+    Metrics.Phase phase = Metrics.start("bfs", "solve", maze);
+    return Solution.finish(phase, this.search(maze, start, goal));
+  }
+
+  // Visits cells in order of distance from the start until the goal is taken off the queue
+  Solution search(CellGraph maze, int start, int goal) {
+    int[] queue = new int[maze.size()];
+    int[] parent = new int[maze.size()];
+    long[] visited = new long[(maze.size() + 63) >>> 6];
+    int[] neighbors = new int[maze.maxDegree()];
+    int head = 0;
+    int tail = 0;
+    int frontier = 1;
+    queue[tail++] = start;
+    parent[start] = start;
+    Solution.mark(visited, start);
+    while (head < tail) {
+      int cell = queue[head++];
+      if (cell == goal) {
+        return Solution.fromParents(parent, start, goal, head, frontier);
+      }
+      int count = maze.openNeighbors(cell, neighbors);
+      for (int i = 0; i < count; i++) {
+        int next = neighbors[i];
+        if (!Solution.isMarked(visited, next)) {
+          Solution.mark(visited, next);
+          parent[next] = cell;
+          queue[tail++] = next;
+        }
+      }
+      frontier = Math.max(frontier, tail - head);
+    }
+    return Solution.unreachable(head, frontier);
+  }
+}
@@ -0,0 +1,36 @@
+package mazesolver;
+
+// Represents how a MazeCache has been doing: lookups that found an entry, lookups that
+// had to build one, lookups that waited for another thread building the same entry,
+// and entries dropped to stay under the byte limit
+public class CacheStats {
+  public final long hits;
+  public final long misses;
+  public final long coalesced;
+  public final long evictions;
+  public final int entries;
+  public final long bytes;
+
+  public CacheStats(long hits, long misses, long coalesced, long evictions, int entries,
+      long bytes) {
+    this.hits = hits;
+    this.misses = misses;
+    this.coalesced = coalesced;
+    this.evictions = evictions;
+    this.entries = entries;
+    this.bytes = bytes;
+  }
+
+  // Returns the share of lookups that did not have to build anything
+  public double hitRate() {
+    long lookups = this.hits + this.misses + this.coalesced;
+    return lookups == 0 ? 0 : (double) (this.hits + this.coalesced) / lookups;
+  }
+
+  @Override
+  public String toString() {
+    return this.hits + " hits, " + this.misses + " misses, " + this.coalesced + " coalesced, "
+        + this.evictions + " evictions, " + this.entries + " entries in " + this.bytes
+        + " bytes (" + Math.round(100 * this.hitRate()) + "% hit rate)";
+  }
+}
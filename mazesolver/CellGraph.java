@@ -0,0 +1,22 @@
+package mazesolver;
+
+// Represents cells joined by open passages, so that a search can walk a grid or a maze
+// of any other shape the same way
+interface CellGraph {
+  // Returns the number of cells
+  int size();
+
+  // Returns the most neighbours any cell can have
+  int maxDegree();
+
+  // Writes the cells reachable in one step from the given cell into out, which must
+  // have room for maxDegree cells, and returns how many there are
+  int openNeighbors(int cell, int[] out);
+
+  // Writes the neighbours of the cell, walls or not, whose bit in marks is set when
+  // marked is true or clear when it is false into out, and returns how many there are
+  int neighbors(int cell, long[] marks, boolean marked, int[] out);
+
+  // Knocks down the wall between the given cell and one of its neighbours
+  void open(int cell, int next);
+}
@@ -0,0 +1,215 @@
+package mazesolver;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Solves a maze by dead end filling: every cell other than the start and goal with only
+// one open neighbour is a dead end, so it is filled in, which may turn its neighbour
+// into a dead end too. The degree of every cell is counted once and dead ends are taken
+// from a work list, so filling is O(n) in total. In a perfect maze the cells left open
+// are exactly the path; with loops the shortest path is found among them.
+//
+// Given a pool, the rows are cut into regions that are filled in parallel. Degrees are
+// then decremented atomically, so exactly one thread sees a cell become a dead end and
+// goes on to fill it, even when its chain crosses into another region.
+public class DeadEndFiller implements MazeSolver {
+  // Rows below which a region is not split any further
+  static final int REGION_ROWS = 64;
+  final ForkJoinPool pool;
+
+  // Fills dead ends on the calling thread
+  public DeadEndFiller() {
+    this.pool = null;
+  }
+
+  // Fills dead ends of separate regions in parallel on the pool
+  public DeadEndFiller(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  // Fills every dead end and returns the path through the cells that are left
+  public Solution solve(MazeGrid maze, int start, int goal) {
+    Metrics.Phase phase = Metrics.start(this.pool == null ? "deadend" : "deadend-parallel",
+        "solve", maze);
+    long[] filled = new long[(maze.size() + 63) >>> 6];
+    int count;
+    if (this.pool == null) {
+      count = DeadEndFiller.fill(maze, start, goal, filled);
+    }
+    else {
+      // every degree must be counted before any is decremented
+      AtomicIntegerArray degree = new AtomicIntegerArray(maze.size());
+      this.pool.invoke(new Degrees(maze, degree, 0, maze.height));
+      Region all = new Region(maze, start, goal, degree, filled, 0, maze.height);
+      this.pool.invoke(all);
+      count = all.count;
+    }
+    return Solution.finish(phase, DeadEndFiller.openPath(maze, start, goal, filled, count));
+  }
+
+  // Fills every dead end on one thread and returns how many cells were filled
+  static int fill(MazeGrid maze, int start, int goal, long[] filled) {
+    int n = maze.size();
+    int[] degree = new int[n];
+    int[] work = new int[n];
+    int[] neighbors = new int[4];
+    int top = 0;
+    for (int cell = 0; cell < n; cell++) {
+      degree[cell] = maze.openNeighbors(cell, neighbors);
+      if (degree[cell] == 1 && cell != start && cell != goal) {
+        work[top++] = cell;
+      }
+    }
+    int count = 0;
+    while (top > 0) {
+      int cell = work[--top];
+      Solution.mark(filled, cell);
+      count++;
+      int found = maze.openNeighbors(cell, neighbors);
+      for (int i = 0; i < found; i++) {
+        int next = neighbors[i];
+        if (!Solution.isMarked(filled, next) && --degree[next] == 1 && next != start
+            && next != goal) {
+          work[top++] = next;
+        }
+      }
+    }
+    return count;
+  }
+
+  // Returns the shortest path from start to goal through cells that were not filled
+  static Solution openPath(MazeGrid maze, int start, int goal, long[] filled, int count) {
+    if (Solution.isMarked(filled, start) || Solution.isMarked(filled, goal)) {
+      return Solution.unreachable(count, 0);
+    }
+    // the cells left are marked as they are searched, so filled doubles as visited
+    int[] queue = new int[maze.size() - count];
+    int[] parent = new int[maze.size()];
+    int[] neighbors = new int[4];
+    int head = 0;
+    int tail = 0;
+    int frontier = 1;
+    queue[tail++] = start;
+    parent[start] = start;
+    Solution.mark(filled, start);
+    while (head < tail) {
+      int cell = queue[head++];
+      if (cell == goal) {
+        return Solution.fromParents(parent, start, goal, count + head, frontier);
+      }
+      int found = maze.openNeighbors(cell, neighbors);
+      for (int i = 0; i < found; i++) {
+        int next = neighbors[i];
+        if (!Solution.isMarked(filled, next)) {
+          Solution.mark(filled, next);
+          parent[next] = cell;
+          queue[tail++] = next;
+        }
+      }
+      frontier = Math.max(frontier, tail - head);
+    }
+    return Solution.unreachable(count + head, frontier);
+  }
+
+  // Represents the rows y0 up to y1 of the maze, whose dead ends are filled by one
+  // thread once it is small enough
+  static class Region extends RecursiveAction {
+    final MazeGrid maze;
+    final int start;
+    final int goal;
+    final AtomicIntegerArray degree;
+    final long[] filled;
+    final int y0;
+    final int y1;
+    // The number of cells this region filled
+    int count;
+
+    Region(MazeGrid maze, int start, int goal, AtomicIntegerArray degree, long[] filled,
+        int y0, int y1) {
+      this.maze = maze;
+      this.start = start;
+      this.goal = goal;
+      this.degree = degree;
+      this.filled = filled;
+      this.y0 = y0;
+      this.y1 = y1;
+    }
+
+    // Splits the rows in half until they are few enough to fill on one thread
+    protected void compute() {
+      if (this.y1 - this.y0 <= DeadEndFiller.REGION_ROWS) {
+        this.fillRegion();
+        return;
+      }
+      int middle = (this.y0 + this.y1) >>> 1;
+      Region top = new Region(this.maze, this.start, this.goal, this.degree, this.filled,
+          this.y0, middle);
+      Region bottom = new Region(this.maze, this.start, this.goal, this.degree, this.filled,
+          middle, this.y1);
+      RecursiveAction.invokeAll(top, bottom);
+      this.count = top.count + bottom.count;
+    }
+
+    // Fills every dead end that starts in this region, following chains wherever they go
+    void fillRegion() {
+      int[] neighbors = new int[4];
+      int[] work = new int[64];
+      int top = 0;
+      for (int cell = this.maze.cell(0, this.y0); cell < this.maze.cell(0, this.y1); cell++) {
+        // the walls never change, so this is the degree before any cell was filled
+        if (this.maze.openNeighbors(cell, neighbors) == 1 && cell != this.start
+            && cell != this.goal) {
+          work[top++] = cell;
+        }
+        while (top > 0) {
+          int dead = work[--top];
+          MazeGrid.WORDS.getAndBitwiseOr(this.filled, dead >>> 6, 1L << dead);
+          this.count++;
+          int found = this.maze.openNeighbors(dead, neighbors);
+          for (int i = 0; i < found; i++) {
+            int next = neighbors[i];
+            long word = (long) MazeGrid.WORDS.getVolatile(this.filled, next >>> 6);
+            if ((word & (1L << next)) == 0 && this.degree.decrementAndGet(next) == 1
+                && next != this.start && next != this.goal) {
+              if (top == work.length) {
+                work = Arrays.copyOf(work, top * 2);
+              }
+              work[top++] = next;
+            }
+          }
+        }
+      }
+    }
+  }
+
+  // Represents the rows y0 up to y1 whose degrees are counted by one thread
+  static class Degrees extends RecursiveAction {
+    final MazeGrid maze;
+    final AtomicIntegerArray degree;
+    final int y0;
+    final int y1;
+
+    Degrees(MazeGrid maze, AtomicIntegerArray degree, int y0, int y1) {
+      this.maze = maze;
+      this.degree = degree;
+      this.y0 = y0;
+      this.y1 = y1;
+    }
+
+    // Counts the open neighbours of every cell in the rows
+    protected void compute() {
+      if (this.y1 - this.y0 <= DeadEndFiller.REGION_ROWS) {
+        int[] neighbors = new int[4];
+        for (int cell = this.maze.cell(0, this.y0); cell < this.maze.cell(0, this.y1); cell++) {
+          this.degree.setPlain(cell, this.maze.openNeighbors(cell, neighbors));
+        }
+        return;
+      }
+      int middle = (this.y0 + this.y1) >>> 1;
+      RecursiveAction.invokeAll(new Degrees(this.maze, this.degree, this.y0, middle),
+          new Degrees(this.maze, this.degree, middle, this.y1));
+    }
+  }
+}
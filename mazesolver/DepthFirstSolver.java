@@ -0,0 +1,51 @@
+package mazesolver;
+
+// Solves a maze with depth first search, following one passage as far as it goes
+public class DepthFirstSolver implements MazeSolver {
+
+  // Finds a path and reports it as the dfs solve phase
+  public Solution solve(MazeGrid maze, int start, int goal) {
+    Metrics.Phase phase = Metrics.start("dfs", "solve", maze);
+    return Solution.finish(phase, this.search(maze, start, goal));
+  }
+
+  // Finds a path through a maze of any shape and reports it as the dfs solve phase
+  public Solution solve(TopologyMaze maze, int start, int goal) {
+    Metrics.Phase phase = Metrics.start("dfs", "solve", maze);
+    return Solution.finish(phase, this.search(maze, start, goal));
+  }
+
+  // Visits the most recently found cell first until the goal is taken off the stack
+  Solution search(CellGraph maze, int start, int goal) {
+    int[] stack = new int[maze.size()];
+    int[] parent = new int[maze.size()];
+    long[] visited = new long[(maze.size() + 63) >>> 6];
+    int[] neighbors = new int[maze.maxDegree()];
+    int top = 0;
+    int expanded = 0;
+    int frontier = 1;
+    stack[top++] = start;
+    parent[start] = start;
+    Solution.mark(visited, start);
+    while (top > 0) {
+      int cell = stack[--top];
+      expanded++;
+      if (cell == goal) {
+        return Solution.fromParents(parent, start, goal, expanded, frontier);
+      }
+      // pushed in reverse so that right and down, or the first neighbours of a
+      // topology, are tried first
+      int count = maze.openNeighbors(cell, neighbors);
+      for (int i = count - 1; i >= 0; i--) {
+        int next = neighbors[i];
+        if (!Solution.isMarked(visited, next)) {
+          Solution.mark(visited, next);
+          parent[next] = cell;
+          stack[top++] = next;
+        }
+      }
+      frontier = Math.max(frontier, top);
+    }
+    return Solution.unreachable(expanded, frontier);
+  }
+}
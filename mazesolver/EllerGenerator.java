@@ -0,0 +1,171 @@
+package mazesolver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Generates a maze one row at a time with Eller's algorithm. Only the sets of the current
+// row are kept, so memory depends on the width alone and the height can be anything.
+// Within a row, neighbours in different sets are joined at random; then every set
+// carries at least one cell down into the next row. The last row joins all sets.
+public class EllerGenerator implements MazeGenerator {
+  // Bytes of finished rows collected before writing to a channel
+  static final int BUFFER_BYTES = 1 << 20;
+
+  // Carves the maze into the grid
+  public void carve(MazeGrid grid, long seed) {
+    this.carve(grid, seed, Progress.NONE);
+  }
+
+  // Carves the maze, reporting the cells carved after every row
+  public void carve(MazeGrid grid, long seed, Progress progress) {
+    Metrics.Phase phase = Metrics.start("eller", "carve", grid);
+    try {
+      this.rows(grid.width, grid.height, seed, (y, right, bottom) -> {
+        grid.setRow((int) y, right, bottom);
+        progress.report((y + 1) * grid.width);
+      });
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    Metrics.finish(phase, grid.height, 0);
+  }
+
+  // Writes the maze to the channel, row after row. Each row is its right walls followed
+  // by its bottom walls, as (width + 63) / 64 little-endian longs each.
+  public StreamReport stream(int width, long height, long seed, WritableByteChannel out)
+      throws IOException {
+    int stride = (width + 63) >>> 6;
+    int rowBytes = 16 * stride;
+    ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(rowBytes, BUFFER_BYTES / rowBytes
+        * rowBytes)).order(ByteOrder.LITTLE_ENDIAN);
+    long begin = System.nanoTime();
+    this.rows(width, height, seed, (y, right, bottom) -> {
+      if (buffer.remaining() < rowBytes) {
+        EllerGenerator.drain(buffer, out);
+      }
+      for (int i = 0; i < stride; i++) {
+        buffer.putLong(right[i]);
+      }
+      for (int i = 0; i < stride; i++) {
+        buffer.putLong(bottom[i]);
+      }
+    });
+    EllerGenerator.drain(buffer, out);
+    return new StreamReport(height, height * rowBytes, System.nanoTime() - begin);
+  }
+
+  // Writes everything in the buffer to the channel and empties it
+  static void drain(ByteBuffer buffer, WritableByteChannel out) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      out.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  // Runs Eller's algorithm, handing every finished row to the sink
+  void rows(int width, long height, long seed, RowSink sink) throws IOException {
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException("Maze must be at least 1x1, was " + width + "x" + height);
+    }
+    SplittableRandom random = new SplittableRandom(seed);
+    int stride = (width + 63) >>> 6;
+    long[] right = new long[stride];
+    long[] bottom = new long[stride];
+    // set of every cell in the row, as a root in a union-find over 2 * width labels:
+    // cells carried down keep labels below width and new cells take width + x
+    int[] sets = new int[width];
+    int[] parent = new int[2 * width];
+    int[] chosen = new int[2 * width];
+    boolean[] down = new boolean[2 * width];
+    int[] relabel = new int[2 * width];
+    for (int i = 0; i < 2 * width; i++) {
+      parent[i] = i;
+    }
+    for (int x = 0; x < width; x++) {
+      sets[x] = width + x;
+    }
+    for (long y = 0; y < height; y++) {
+      boolean last = y == height - 1;
+      Arrays.fill(right, -1L);
+      Arrays.fill(bottom, -1L);
+      // join neighbours in different sets, drawing 64 coin flips at a time
+      long coins = 0;
+      for (int x = 0; x + 1 < width; x++) {
+        if ((x & 63) == 0) {
+          coins = random.nextLong();
+        }
+        int a = EllerGenerator.find(parent, sets[x]);
+        int b = EllerGenerator.find(parent, sets[x + 1]);
+        if (a != b && (last || (coins & (1L << x)) != 0)) {
+          parent[b] = a;
+          right[x >>> 6] &= ~(1L << x);
+        }
+      }
+      if (!last) {
+        // every set goes down at least once, through its last cell if none chose to
+        for (int x = 0; x < width; x++) {
+          if ((x & 63) == 0) {
+            coins = random.nextLong();
+          }
+          int root = EllerGenerator.find(parent, sets[x]);
+          sets[x] = root;
+          chosen[root] = x;
+          if ((coins & (1L << x)) != 0) {
+            down[root] = true;
+            bottom[x >>> 6] &= ~(1L << x);
+          }
+        }
+        for (int x = 0; x < width; x++) {
+          int root = sets[x];
+          if (!down[root]) {
+            down[root] = true;
+            bottom[chosen[root] >>> 6] &= ~(1L << chosen[root]);
+          }
+        }
+      }
+      sink.row(y, right, bottom);
+      if (!last) {
+        this.nextRow(width, sets, parent, down, relabel, bottom);
+      }
+    }
+  }
+
+  // Gives cells that were carried down labels below width, cells below a wall a new label,
+  // and resets the union-find for the next row
+  void nextRow(int width, int[] sets, int[] parent, boolean[] down, int[] relabel,
+      long[] bottom) {
+    Arrays.fill(relabel, -1);
+    for (int x = 0; x < width; x++) {
+      int root = sets[x];
+      down[root] = false;
+      if ((bottom[x >>> 6] & (1L << x)) == 0) {
+        if (relabel[root] < 0) {
+          relabel[root] = x;
+        }
+        sets[x] = relabel[root];
+      }
+      else {
+        sets[x] = width + x;
+      }
+    }
+    for (int i = 0; i < parent.length; i++) {
+      parent[i] = i;
+    }
+  }
+
+  // Returns the root of the label, halving the path to it
+  static int find(int[] parent, int label) {
+    while (parent[label] != label) {
+      parent[label] = parent[parent[label]];
+      label = parent[label];
+    }
+    return label;
+  }
+}
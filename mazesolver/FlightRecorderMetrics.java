@@ -0,0 +1,24 @@
+package mazesolver;
+
+// Sends every phase to the flight recorder as a mazesolver.Phase event, so that phases
+// show up in recordings next to GC and allocation events. Events are only written
+// while a recording with the event enabled is running.
+public class FlightRecorderMetrics implements MetricsListener {
+
+  // Commits one event for the phase
+  public void phaseFinished(PhaseMetrics metrics) {
+    PhaseEvent event = new PhaseEvent();
+    if (!event.isEnabled()) {
+      return;
+    }
+    event.source = metrics.source;
+    event.phase = metrics.phase;
+    event.width = metrics.width;
+    event.height = metrics.height;
+    event.nanos = metrics.nanos;
+    event.bytes = metrics.bytes;
+    event.operations = metrics.operations;
+    event.frontier = metrics.frontier;
+    event.commit();
+  }
+}
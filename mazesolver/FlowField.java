@@ -0,0 +1,254 @@
+package mazesolver;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Tells every cell of a maze which way to go to reach one goal. One breadth first search
+// outward from the goal fills in the distance of every cell, and a second pass stores the
+// step from each cell to a neighbour one passage closer, in two bits: 0 right, 1 down,
+// 2 left and 3 up. Any number of agents then look up their next cell in O(1). A field is
+// never changed once built, so it can be shared between threads; when the goal moves,
+// a new one is built.
+//
+// Given a pool, the search expands each level of the frontier in parallel once it is
+// wide enough, claiming cells by compare-and-set on their distance, and the directions
+// are worked out in parallel over ranges of whole words. The directions only depend on
+// the distances, so both ways build the same field.
+public class FlowField {
+  static final VarHandle DISTANCES = MethodHandles.arrayElementVarHandle(int[].class);
+  // Frontier cells below which a level is expanded on one thread, and cells each task
+  // expands or gives directions to
+  static final int CHUNK = 1024;
+  public final MazeGrid maze;
+  public final int goal;
+  // The number of passages from each cell to the goal, or -1 if it cannot reach it
+  final int[] distance;
+  // The direction of the step from each cell towards the goal, 32 cells to a word
+  final long[] directions;
+
+  // Builds the field on the calling thread
+  public FlowField(MazeGrid maze, int goal) {
+    this(maze, goal, null);
+  }
+
+  // Builds the field on the pool, or on the calling thread if the pool is null
+  public FlowField(MazeGrid maze, int goal, ForkJoinPool pool) {
+    if (goal < 0 || goal >= maze.size()) {
+      throw new IllegalArgumentException("Goal " + goal + " is not a cell of the maze");
+    }
+    this.maze = maze;
+    this.goal = goal;
+    this.distance = new int[maze.size()];
+    this.directions = new long[(maze.size() + 31) >>> 5];
+    Arrays.fill(this.distance, -1);
+    Metrics.Phase phase = Metrics.start("flowfield", "distance", maze);
+    int reached = pool == null ? FlowField.search(maze, goal, this.distance)
+        : FlowField.searchLevels(maze, goal, this.distance, pool);
+    Metrics.finish(phase, reached, 0);
+    phase = Metrics.start("flowfield", "directions", maze);
+    Directions all = new Directions(maze, this.distance, this.directions, 0,
+        this.directions.length);
+    if (pool == null) {
+      all.compute();
+    }
+    else {
+      pool.invoke(all);
+    }
+    Metrics.finish(phase, maze.size(), 0);
+  }
+
+  // Returns the number of passages from the cell to the goal, or -1 if there is no path
+  public int distance(int cell) {
+    return this.distance[cell];
+  }
+
+  // Returns the cell one step closer to the goal, or the cell itself at the goal or
+  // when it cannot reach the goal
+  public int next(int cell) {
+    if (this.distance[cell] <= 0) {
+      return cell;
+    }
+    switch ((int) (this.directions[cell >>> 5] >>> ((cell & 31) << 1)) & 3) {
+      case 0:
+        return cell + 1;
+      case 1:
+        return cell + this.maze.width;
+      case 2:
+        return cell - 1;
+      default:
+        return cell - this.maze.width;
+    }
+  }
+
+  // Moves every agent one step towards the goal in place, and returns how many are at
+  // the goal afterwards
+  public int step(int[] agents) {
+    int arrived = 0;
+    for (int i = 0; i < agents.length; i++) {
+      agents[i] = this.next(agents[i]);
+      if (agents[i] == this.goal) {
+        arrived++;
+      }
+    }
+    return arrived;
+  }
+
+  // Fills in the distance of every cell that can reach the goal on one thread, and
+  // returns how many there are
+  static int search(MazeGrid maze, int goal, int[] distance) {
+    int[] queue = new int[maze.size()];
+    int[] neighbors = new int[4];
+    int head = 0;
+    int tail = 0;
+    queue[tail++] = goal;
+    distance[goal] = 0;
+    while (head < tail) {
+      int cell = queue[head++];
+      int count = maze.openNeighbors(cell, neighbors);
+      for (int i = 0; i < count; i++) {
+        int next = neighbors[i];
+        if (distance[next] < 0) {
+          distance[next] = distance[cell] + 1;
+          queue[tail++] = next;
+        }
+      }
+    }
+    return tail;
+  }
+
+  // Fills in the distance of every cell that can reach the goal one level at a time,
+  // expanding wide levels on the pool, and returns how many cells there are
+  static int searchLevels(MazeGrid maze, int goal, int[] distance, ForkJoinPool pool) {
+    int[] frontier = new int[maze.size()];
+    int[] next = new int[maze.size()];
+    AtomicInteger tail = new AtomicInteger();
+    frontier[0] = goal;
+    distance[goal] = 0;
+    int size = 1;
+    int reached = 1;
+    for (int level = 1; size > 0; level++) {
+      tail.set(0);
+      Level expand = new Level(maze, distance, frontier, 0, size, next, tail, level);
+      if (size < FlowField.CHUNK) {
+        expand.compute();
+      }
+      else {
+        pool.invoke(expand);
+      }
+      size = tail.get();
+      reached += size;
+      int[] swap = frontier;
+      frontier = next;
+      next = swap;
+    }
+    return reached;
+  }
+
+  // Represents the frontier cells from up to to, whose neighbours not reached yet are
+  // given the level as their distance and added to the next frontier
+  static class Level extends RecursiveAction {
+    final MazeGrid maze;
+    final int[] distance;
+    final int[] frontier;
+    final int from;
+    final int to;
+    final int[] next;
+    final AtomicInteger tail;
+    final int level;
+
+    Level(MazeGrid maze, int[] distance, int[] frontier, int from, int to, int[] next,
+        AtomicInteger tail, int level) {
+      this.maze = maze;
+      this.distance = distance;
+      this.frontier = frontier;
+      this.from = from;
+      this.to = to;
+      this.next = next;
+      this.tail = tail;
+      this.level = level;
+    }
+
+    // Splits the frontier in half until each part is one chunk, then expands it
+    protected void compute() {
+      if (this.to - this.from > FlowField.CHUNK) {
+        int middle = (this.from + this.to) >>> 1;
+        RecursiveAction.invokeAll(
+            new Level(this.maze, this.distance, this.frontier, this.from, middle, this.next,
+                this.tail, this.level),
+            new Level(this.maze, this.distance, this.frontier, middle, this.to, this.next,
+                this.tail, this.level));
+        return;
+      }
+      int[] neighbors = new int[4];
+      int[] found = new int[4 * (this.to - this.from)];
+      int count = 0;
+      for (int i = this.from; i < this.to; i++) {
+        int open = this.maze.openNeighbors(this.frontier[i], neighbors);
+        for (int j = 0; j < open; j++) {
+          // only the thread that claims a cell adds it, so no cell is added twice
+          if (DISTANCES.compareAndSet(this.distance, neighbors[j], -1, this.level)) {
+            found[count++] = neighbors[j];
+          }
+        }
+      }
+      System.arraycopy(found, 0, this.next, this.tail.getAndAdd(count), count);
+    }
+  }
+
+  // Represents the words of directions from w0 up to w1, worked out by one thread once
+  // there are few enough of them. Each word is written by one task only.
+  static class Directions extends RecursiveAction {
+    final MazeGrid maze;
+    final int[] distance;
+    final long[] directions;
+    final int w0;
+    final int w1;
+
+    Directions(MazeGrid maze, int[] distance, long[] directions, int w0, int w1) {
+      this.maze = maze;
+      this.distance = distance;
+      this.directions = directions;
+      this.w0 = w0;
+      this.w1 = w1;
+    }
+
+    // Splits the words in half until they cover one chunk of cells, then fills them in
+    protected void compute() {
+      if (32 * (this.w1 - this.w0) > FlowField.CHUNK) {
+        int middle = (this.w0 + this.w1) >>> 1;
+        RecursiveAction.invokeAll(
+            new Directions(this.maze, this.distance, this.directions, this.w0, middle),
+            new Directions(this.maze, this.distance, this.directions, middle, this.w1));
+        return;
+      }
+      int[] neighbors = new int[4];
+      int width = this.maze.width;
+      for (int w = this.w0; w < this.w1; w++) {
+        long word = 0;
+        int end = Math.min(32 * w + 32, this.maze.size());
+        for (int cell = 32 * w; cell < end; cell++) {
+          if (this.distance[cell] <= 0) {
+            continue;
+          }
+          // the first open neighbour one passage closer, in the order openNeighbors gives
+          int count = this.maze.openNeighbors(cell, neighbors);
+          int closer = cell;
+          for (int i = 0; i < count && closer == cell; i++) {
+            if (this.distance[neighbors[i]] == this.distance[cell] - 1) {
+              closer = neighbors[i];
+            }
+          }
+          // rows first, in a maze one cell wide the cell below is also cell + 1
+          long direction = closer == cell + width ? 1 : closer == cell - width ? 3
+              : closer == cell + 1 ? 0 : 2;
+          word |= direction << ((cell & 31) << 1);
+        }
+        this.directions[w] = word;
+      }
+    }
+  }
+}
@@ -0,0 +1,172 @@
+package mazesolver;
+
+import java.util.Arrays;
+
+// Keeps a shortest path between two cells up to date while walls are put up and knocked
+// down, using Lifelong Planning A*. Every cell keeps its distance from the start, g, and
+// the distance its neighbours say it should have, rhs. A wall edit only changes rhs of
+// the two cells beside it, and repairing the path only visits cells whose distance
+// changed and that could matter to the goal, so the cost of an edit depends on the part
+// of the maze it affects rather than on the size of the maze. Mazes with loops and
+// edits that cut the goal off are both handled.
+public class IncrementalSolver {
+  static final int INFINITY = Integer.MAX_VALUE;
+  final MazeGrid maze;
+  final int start;
+  final int goal;
+  final int goalX;
+  final int goalY;
+  final int[] g;
+  final int[] rhs;
+  final IndexedHeap open;
+  final int[] neighbors = new int[4];
+  final int[] around = new int[4];
+  // The solution after the last repair, or null if an edit has been made since
+  Solution solution;
+
+  // Finds the first path from start to goal
+  public IncrementalSolver(MazeGrid maze, int start, int goal) {
+    this.maze = maze;
+    this.start = start;
+    this.goal = goal;
+    this.goalX = maze.x(goal);
+    this.goalY = maze.y(goal);
+    this.g = new int[maze.size()];
+    this.rhs = new int[maze.size()];
+    Arrays.fill(this.g, IncrementalSolver.INFINITY);
+    Arrays.fill(this.rhs, IncrementalSolver.INFINITY);
+    this.open = new IndexedHeap(maze.size());
+    this.rhs[start] = 0;
+    // the start is the only cell that disagrees with its neighbours, at distance 0
+    this.open.put(start, (long) (Math.abs(maze.x(start) - this.goalX)
+        + Math.abs(maze.y(start) - this.goalY)) << 32);
+  }
+
+  // Returns the shortest path from start to goal, repairing it first if walls changed
+  public Solution solution() {
+    if (this.solution == null) {
+      Metrics.Phase phase = Metrics.start("lpastar", "repair", this.maze);
+      this.solution = this.repair();
+      Metrics.finish(phase, this.solution.expanded, this.solution.frontier);
+    }
+    return this.solution;
+  }
+
+  // Returns the distance of the cell from the start if the last repair settled it,
+  // or -1 if it did not or the cell cannot be reached
+  public int distance(int cell) {
+    this.solution();
+    int d = this.g[cell];
+    return d == IncrementalSolver.INFINITY || d != this.rhs[cell] ? -1 : d;
+  }
+
+  // Knocks down the wall on the right side of x, y
+  public void removeRightWall(int x, int y) {
+    this.maze.removeRightWall(x, y);
+    this.wallChanged(this.maze.cell(x, y), this.maze.cell(x + 1, y));
+  }
+
+  // Puts up the wall on the right side of x, y
+  public void addRightWall(int x, int y) {
+    this.maze.addRightWall(x, y);
+    this.wallChanged(this.maze.cell(x, y), this.maze.cell(x + 1, y));
+  }
+
+  // Knocks down the wall below x, y
+  public void removeBottomWall(int x, int y) {
+    this.maze.removeBottomWall(x, y);
+    this.wallChanged(this.maze.cell(x, y), this.maze.cell(x, y + 1));
+  }
+
+  // Puts up the wall below x, y
+  public void addBottomWall(int x, int y) {
+    this.maze.addBottomWall(x, y);
+    this.wallChanged(this.maze.cell(x, y), this.maze.cell(x, y + 1));
+  }
+
+  // Updates both cells beside a wall that was put up or knocked down
+  void wallChanged(int a, int b) {
+    this.update(a);
+    this.update(b);
+    this.solution = null;
+  }
+
+  // Returns the priority of a cell, smaller distance plus estimate first and then
+  // smaller distance
+  long key(int cell) {
+    long d = Math.min(this.g[cell], this.rhs[cell]);
+    long estimate = Math.abs(this.maze.x(cell) - this.goalX)
+        + Math.abs(this.maze.y(cell) - this.goalY);
+    return (d + estimate) << 32 | d;
+  }
+
+  // Works out rhs of the cell from its open neighbours, and queues it if it no longer
+  // agrees with g
+  void update(int cell) {
+    if (cell != this.start) {
+      int best = IncrementalSolver.INFINITY;
+      int count = this.maze.openNeighbors(cell, this.around);
+      for (int i = 0; i < count; i++) {
+        if (this.g[this.around[i]] != IncrementalSolver.INFINITY) {
+          best = Math.min(best, this.g[this.around[i]] + 1);
+        }
+      }
+      this.rhs[cell] = best;
+    }
+    if (this.g[cell] != this.rhs[cell]) {
+      this.open.put(cell, this.key(cell));
+    }
+    else {
+      this.open.remove(cell);
+    }
+  }
+
+  // Settles cells until the goal agrees with its neighbours and nothing queued could
+  // still shorten its path, then reads the path back from the goal
+  Solution repair() {
+    int expanded = 0;
+    int frontier = this.open.size;
+    while (this.open.peekKey() < this.key(this.goal) || this.g[this.goal] != this.rhs[this.goal]) {
+      if (this.open.size == 0) {
+        break;
+      }
+      int cell = this.open.poll();
+      expanded++;
+      if (this.g[cell] > this.rhs[cell]) {
+        this.g[cell] = this.rhs[cell];
+      }
+      else {
+        this.g[cell] = IncrementalSolver.INFINITY;
+        this.update(cell);
+      }
+      int count = this.maze.openNeighbors(cell, this.neighbors);
+      for (int i = 0; i < count; i++) {
+        this.update(this.neighbors[i]);
+      }
+      frontier = Math.max(frontier, this.open.size);
+    }
+    if (this.g[this.goal] == IncrementalSolver.INFINITY) {
+      return Solution.unreachable(expanded, frontier);
+    }
+    int[] path = new int[this.g[this.goal] + 1];
+    int cell = this.goal;
+    for (int i = path.length - 1; i > 0; i--) {
+      path[i] = cell;
+      int count = this.maze.openNeighbors(cell, this.neighbors);
+      int previous = -1;
+      for (int j = 0; j < count && previous < 0; j++) {
+        if (this.g[this.neighbors[j]] == this.g[cell] - 1) {
+          previous = this.neighbors[j];
+        }
+      }
+      // only a wall changed behind the solver's back leaves a cell with no way back
+      if (previous < 0) {
+        throw new IllegalStateException("No open neighbour of cell " + cell + " is at distance "
+            + (this.g[cell] - 1));
+      }
+      cell = previous;
+    }
+    path[0] = cell;
+    return new Solution(path, expanded, frontier);
+  }
+}
@@ -0,0 +1,121 @@
+package mazesolver;
+
+import java.util.Arrays;
+
+// Represents a binary min-heap of cells ordered by long priorities that knows where each
+// cell is, so that a queued cell can have its priority changed or be taken out in
+// O(log n) instead of being queued again
+class IndexedHeap {
+  final int[] cells;
+  final long[] keys;
+  // The place of each cell in the heap, or -1 if it is not queued
+  final int[] position;
+  int size;
+
+  IndexedHeap(int capacity) {
+    this.cells = new int[capacity];
+    this.keys = new long[capacity];
+    this.position = new int[capacity];
+    Arrays.fill(this.position, -1);
+  }
+
+  // Checks if the given cell is queued
+  boolean contains(int cell) {
+    return this.position[cell] >= 0;
+  }
+
+  // Returns the smallest priority, or Long.MAX_VALUE when the heap is empty
+  long peekKey() {
+    return this.size == 0 ? Long.MAX_VALUE : this.keys[0];
+  }
+
+  // Queues the cell with the given priority, or changes its priority if it is queued
+  void put(int cell, long key) {
+    int i = this.position[cell];
+    if (i < 0) {
+      i = this.size++;
+      this.cells[i] = cell;
+      this.position[cell] = i;
+      this.keys[i] = key;
+      this.siftUp(i);
+    }
+    else if (key < this.keys[i]) {
+      this.keys[i] = key;
+      this.siftUp(i);
+    }
+    else {
+      this.keys[i] = key;
+      this.siftDown(i);
+    }
+  }
+
+  // Takes the cell with the smallest priority off the heap
+  int poll() {
+    int cell = this.cells[0];
+    this.removeAt(0);
+    return cell;
+  }
+
+  // Takes the given cell off the heap if it is queued
+  void remove(int cell) {
+    if (this.position[cell] >= 0) {
+      this.removeAt(this.position[cell]);
+    }
+  }
+
+  // Fills the hole at i with the last entry
+  void removeAt(int i) {
+    this.position[this.cells[i]] = -1;
+    int last = --this.size;
+    if (i == last) {
+      return;
+    }
+    int moved = this.cells[last];
+    this.cells[i] = moved;
+    this.keys[i] = this.keys[last];
+    this.position[moved] = i;
+    this.siftUp(i);
+    this.siftDown(this.position[moved]);
+  }
+
+  // Moves the entry at i up until its parent is smaller
+  void siftUp(int i) {
+    int cell = this.cells[i];
+    long key = this.keys[i];
+    while (i > 0 && this.keys[(i - 1) >>> 1] > key) {
+      int up = (i - 1) >>> 1;
+      this.move(up, i);
+      i = up;
+    }
+    this.cells[i] = cell;
+    this.keys[i] = key;
+    this.position[cell] = i;
+  }
+
+  // Moves the entry at i down until both children are larger
+  void siftDown(int i) {
+    int cell = this.cells[i];
+    long key = this.keys[i];
+    while (2 * i + 1 < this.size) {
+      int child = 2 * i + 1;
+      if (child + 1 < this.size && this.keys[child + 1] < this.keys[child]) {
+        child++;
+      }
+      if (this.keys[child] >= key) {
+        break;
+      }
+      this.move(child, i);
+      i = child;
+    }
+    this.cells[i] = cell;
+    this.keys[i] = key;
+    this.position[cell] = i;
+  }
+
+  // Copies the entry at from into the slot at to
+  void move(int from, int to) {
+    this.cells[to] = this.cells[from];
+    this.keys[to] = this.keys[from];
+    this.position[this.cells[to]] = to;
+  }
+}
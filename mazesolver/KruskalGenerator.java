@@ -0,0 +1,225 @@
+package mazesolver;
+
+import java.util.SplittableRandom;
+
+// Generates a maze with randomised Kruskal's algorithm: walls are visited in random
+// order and knocked down unless the cells on both sides are already connected
+public class KruskalGenerator implements MazeGenerator {
+  // Weights are drawn from 0 up to this bound
+  static final int WEIGHTS = 55;
+
+  // Knocks down walls in order of random weight
+  public void carve(MazeGrid grid, long seed) {
+    this.carve(grid, seed, Progress.NONE);
+  }
+
+  // Knocks down walls in order of random weight, reporting the walls tried so far
+  // between phases and every REPORT_EVERY walls while removing cycles
+  public void carve(MazeGrid grid, long seed, Progress progress) {
+    this.carve(grid, seed, progress, new Scratch());
+  }
+
+  // Carves like carve with progress, keeping the sorted edges and the sets of cells in
+  // the scratch. The edges are never listed on their own: the weights are drawn once to
+  // count how many walls have each weight, and drawn again from the same seed to put
+  // every wall in its place.
+  public void carve(MazeGrid grid, long seed, Progress progress, Scratch scratch) {
+    int shift = 32 - Integer.numberOfLeadingZeros(grid.width - 1);
+    if (((long) grid.height << (shift + 1)) > Integer.MAX_VALUE) {
+      this.carveListed(grid, seed, progress);
+      return;
+    }
+    int count = (grid.width - 1) * grid.height + grid.width * (grid.height - 1);
+    Metrics.Phase phase = Metrics.start("kruskal", "weights", grid);
+    int[] starts = this.countWeights(count, seed);
+    Metrics.finish(phase, count, 0);
+    progress.report(0);
+    phase = Metrics.start("kruskal", "sort", grid);
+    int[] sorted = this.placeEdges(grid, seed, starts, scratch.ints(0, count), shift);
+    Metrics.finish(phase, count, 0);
+    progress.report(0);
+    phase = Metrics.start("kruskal", "cycles", grid);
+    UnionFind sets = new UnionFind(scratch.ints(1, grid.size()), grid.size());
+    int tried = this.removeCycles(grid, sorted, count, shift, sets, progress);
+    Metrics.finish(phase, tried, 0);
+    progress.report(tried);
+  }
+
+  // Carves with a list of edges numbered by cell, for grids too large to number their
+  // edges by row and column in an int
+  void carveListed(MazeGrid grid, long seed, Progress progress) {
+    Metrics.Phase phase = Metrics.start("kruskal", "weights", grid);
+    int[] edges = this.createEdges(grid);
+    int[] weights = this.createWeights(edges.length, seed);
+    Metrics.finish(phase, edges.length, 0);
+    progress.report(0);
+    phase = Metrics.start("kruskal", "sort", grid);
+    int[] sorted = this.sortEdges(edges, weights);
+    Metrics.finish(phase, edges.length, 0);
+    progress.report(0);
+    phase = Metrics.start("kruskal", "cycles", grid);
+    int tried = this.removeCycles(grid, sorted, progress);
+    Metrics.finish(phase, tried, 0);
+    progress.report(tried);
+  }
+
+  // Returns where each weight starts in the sorted edges, drawing count weights from
+  // the seed in the order createWeights draws them
+  int[] countWeights(int count, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    int[] starts = new int[KruskalGenerator.WEIGHTS + 1];
+    for (int i = 0; i < count; i++) {
+      starts[random.nextInt(KruskalGenerator.WEIGHTS) + 1]++;
+    }
+    for (int w = 0; w < KruskalGenerator.WEIGHTS; w++) {
+      starts[w + 1] += starts[w];
+    }
+    return starts;
+  }
+
+  // Draws the weights again and puts each edge in createEdges order at the next place
+  // for its weight, so the order is the one sortEdges gives. An edge is numbered by its
+  // row, column and side, ((y << shift | x) << 1) + 1 for the wall below, so removing
+  // it needs no division.
+  int[] placeEdges(MazeGrid grid, long seed, int[] starts, int[] sorted, int shift) {
+    SplittableRandom random = new SplittableRandom(seed);
+    for (int y = 0; y < grid.height; y++) {
+      boolean below = y + 1 < grid.height;
+      for (int x = 0; x < grid.width; x++) {
+        int edge = (y << shift | x) << 1;
+        if (x + 1 < grid.width) {
+          sorted[starts[random.nextInt(KruskalGenerator.WEIGHTS)]++] = edge;
+        }
+        if (below) {
+          sorted[starts[random.nextInt(KruskalGenerator.WEIGHTS)]++] = edge | 1;
+        }
+      }
+    }
+    return sorted;
+  }
+
+  // Removes cycles from the first count edges numbered by placeEdges, reporting the
+  // walls tried every REPORT_EVERY walls
+  int removeCycles(MazeGrid grid, int[] sortedEdges, int count, int shift, UnionFind sets,
+      Progress progress) {
+    int column = (1 << shift) - 1;
+    int i = 0;
+    for (; i < count && sets.count > 1; i++) {
+      if ((i & (MazeGenerator.REPORT_EVERY - 1)) == 0 && i > 0) {
+        progress.report(i);
+      }
+      int edge = sortedEdges[i];
+      int x = (edge >>> 1) & column;
+      int y = edge >>> (shift + 1);
+      int cell = y * grid.width + x;
+      int bottom = edge & 1;
+      if (sets.union(cell, bottom == 1 ? cell + grid.width : cell + 1)) {
+        grid.clearWallBits((2 * y + bottom) * grid.stride + (x >>> 6), 1L << x);
+      }
+    }
+    return i;
+  }
+
+  // Carves a maze on any topology the same way, the walls are already numbered so
+  // each is put in its place by number. It reports the same phases as a grid.
+  public void carve(TopologyMaze maze, long seed) {
+    Topology topology = maze.topology;
+    int count = topology.edgeCount();
+    Metrics.Phase phase = Metrics.start("kruskal", "weights", maze);
+    int[] starts = this.countWeights(count, seed);
+    Metrics.finish(phase, count, 0);
+    phase = Metrics.start("kruskal", "sort", maze);
+    SplittableRandom random = new SplittableRandom(seed);
+    int[] sorted = new int[count];
+    for (int i = 0; i < count; i++) {
+      sorted[starts[random.nextInt(KruskalGenerator.WEIGHTS)]++] = i;
+    }
+    Metrics.finish(phase, count, 0);
+    phase = Metrics.start("kruskal", "cycles", maze);
+    UnionFind sets = new UnionFind(topology.size);
+    int i = 0;
+    for (; i < sorted.length && sets.count > 1; i++) {
+      if (sets.union(topology.first[sorted[i]], topology.second[sorted[i]])) {
+        maze.removeWall(sorted[i]);
+      }
+    }
+    Metrics.finish(phase, i, 0);
+  }
+
+  // Returns the walls between neighbouring cells, numbered 2 * cell for the wall
+  // on the right of a cell and 2 * cell + 1 for the wall below it
+  public int[] createEdges(MazeGrid grid) {
+    int[] edges = new int[(grid.width - 1) * grid.height + grid.width * (grid.height - 1)];
+    int i = 0;
+    for (int y = 0; y < grid.height; y++) {
+      for (int x = 0; x < grid.width; x++) {
+        int cell = grid.cell(x, y);
+        if (x + 1 < grid.width) {
+          edges[i++] = 2 * cell;
+        }
+        if (y + 1 < grid.height) {
+          edges[i++] = 2 * cell + 1;
+        }
+      }
+    }
+    return edges;
+  }
+
+  // Returns count random weights drawn from the seed. SplittableRandom is not shared
+  // between threads, so generators running at once neither contend nor change each
+  // other's mazes.
+  public int[] createWeights(int count, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    int[] weights = new int[count];
+    for (int i = 0; i < count; i++) {
+      weights[i] = random.nextInt(KruskalGenerator.WEIGHTS);
+    }
+    return weights;
+  }
+
+  // Returns the edges sorted by weight, keeping their order for equal weights.
+  // Weights are below WEIGHTS, so a counting sort does it in one pass over the edges
+  // to count and one to place them.
+  public int[] sortEdges(int[] edges, int[] weights) {
+    int[] starts = new int[KruskalGenerator.WEIGHTS + 1];
+    for (int i = 0; i < weights.length; i++) {
+      starts[weights[i] + 1]++;
+    }
+    for (int w = 0; w < KruskalGenerator.WEIGHTS; w++) {
+      starts[w + 1] += starts[w];
+    }
+    int[] sorted = new int[edges.length];
+    for (int i = 0; i < edges.length; i++) {
+      sorted[starts[weights[i]]++] = edges[i];
+    }
+    return sorted;
+  }
+
+  // Knocks down every wall in order that does not create a cycle, and returns how
+  // many walls it tried before every cell was connected
+  public int removeCycles(MazeGrid grid, int[] sortedEdges) {
+    return this.removeCycles(grid, sortedEdges, Progress.NONE);
+  }
+
+  // Removes cycles like removeCycles, reporting the walls tried every REPORT_EVERY walls
+  int removeCycles(MazeGrid grid, int[] sortedEdges, Progress progress) {
+    UnionFind sets = new UnionFind(grid.size());
+    int i = 0;
+    for (; i < sortedEdges.length && sets.count > 1; i++) {
+      if ((i & (MazeGenerator.REPORT_EVERY - 1)) == 0 && i > 0) {
+        progress.report(i);
+      }
+      int cell = sortedEdges[i] >>> 1;
+      boolean bottom = (sortedEdges[i] & 1) == 1;
+      if (sets.union(cell, bottom ? cell + grid.width : cell + 1)) {
+        if (bottom) {
+          grid.removeBottomWall(grid.x(cell), grid.y(cell));
+        }
+        else {
+          grid.removeRightWall(grid.x(cell), grid.y(cell));
+        }
+      }
+    }
+    return i;
+  }
+}
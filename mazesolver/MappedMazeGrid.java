@@ -0,0 +1,68 @@
+package mazesolver;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+// Represents a grid whose walls are read from and written to a memory-mapped maze file.
+// A file may be larger than one mapping can hold, so it is mapped in chunks of 1 GB.
+public class MappedMazeGrid extends MazeGrid {
+  // Every chunk holds 2^27 words
+  static final int CHUNK_SHIFT = 27;
+  static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+  static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+      ByteOrder.LITTLE_ENDIAN);
+  public final MazeFile header;
+  final MappedByteBuffer[] chunks;
+
+  MappedMazeGrid(MazeFile header, FileChannel channel, boolean writable) throws IOException {
+    super(header.width, (int) header.height, false);
+    this.header = header;
+    long words = this.words();
+    this.chunks = new MappedByteBuffer[(int) ((words + CHUNK_MASK) >>> CHUNK_SHIFT)];
+    for (int i = 0; i < this.chunks.length; i++) {
+      long first = (long) i << CHUNK_SHIFT;
+      long count = Math.min(1L << CHUNK_SHIFT, words - first);
+      this.chunks[i] = channel.map(writable ? FileChannel.MapMode.READ_WRITE
+          : FileChannel.MapMode.READ_ONLY, MazeFile.HEADER_BYTES + 8 * first, 8 * count);
+      this.chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+    }
+  }
+
+  // Returns the word at the given index from the mapping
+  long wallWord(int index) {
+    return this.chunks[index >>> CHUNK_SHIFT].getLong((index & CHUNK_MASK) << 3);
+  }
+
+  // Replaces the word at the given index in the mapping
+  void setWallWord(int index, long word) {
+    this.chunks[index >>> CHUNK_SHIFT].putLong((index & CHUNK_MASK) << 3, word);
+  }
+
+  // Clears the given bits of the word at index in the mapping
+  void clearWallBits(int index, long bits) {
+    this.setWallWord(index, this.wallWord(index) & ~bits);
+  }
+
+  // Clears the given bits of the word at index while other threads may be changing it
+  void clearWallBitsAtomically(int index, long bits) {
+    LONGS.getAndBitwiseAnd(this.chunks[index >>> CHUNK_SHIFT], (index & CHUNK_MASK) << 3, ~bits);
+  }
+
+  // Puts every wall in the mapping back up
+  public void reset() {
+    for (int i = 0; i < this.words(); i++) {
+      this.setWallWord(i, -1L);
+    }
+  }
+
+  // Writes changed walls back to the file
+  public void force() {
+    for (MappedByteBuffer chunk : this.chunks) {
+      chunk.force();
+    }
+  }
+}
@@ -0,0 +1,218 @@
+package mazesolver;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Keeps recently used mazes and solutions so that a spec asked for again is not built
+// again. Mazes are kept as their wall words, two bits per cell, and solutions as their
+// first cell and two bits per step. Entries are dropped least recently used first once
+// their bytes go over the limit. When several threads miss on the same key at once, one
+// builds the entry and the others wait for it.
+public class MazeCache {
+  // Bytes counted for each entry on top of its data
+  static final int ENTRY_BYTES = 64;
+  final long maxBytes;
+  // Entries in order of use, the eldest first, guarded by this
+  final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  // Entries being built, guarded by this
+  final Map<Key, CompletableFuture<Entry>> building = new HashMap<>();
+  long bytes;
+  long hits;
+  long misses;
+  long coalesced;
+  long evictions;
+
+  public MazeCache(long maxBytes) {
+    if (maxBytes < 0) {
+      throw new IllegalArgumentException("The limit must not be negative, was " + maxBytes);
+    }
+    this.maxBytes = maxBytes;
+  }
+
+  // Represents the data kept for one key: wall words for a maze, or for a solution
+  // the first cell followed by two bits per step
+  static class Entry {
+    final long[] data;
+    final int length;
+    final int expanded;
+    final int frontier;
+
+    Entry(long[] data, int length, int expanded, int frontier) {
+      this.data = data;
+      this.length = length;
+      this.expanded = expanded;
+      this.frontier = frontier;
+    }
+
+    // Returns the bytes this entry counts against the limit
+    long bytes() {
+      return MazeCache.ENTRY_BYTES + 8L * this.data.length;
+    }
+  }
+
+  // Represents the key of a maze or of a solution. Mazes and solutions are kept apart,
+  // so a solution is never mistaken for the maze it was found in.
+  static class Key {
+    final boolean solution;
+    final MazeSpec spec;
+
+    Key(boolean solution, MazeSpec spec) {
+      this.solution = solution;
+      this.spec = spec;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) other;
+      return this.solution == that.solution && this.spec.equals(that.spec);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * this.spec.hashCode() + (this.solution ? 1 : 0);
+    }
+  }
+
+  // Represents building the entry for a key on a miss
+  interface Builder {
+    Entry build();
+  }
+
+  // Returns the maze for the spec's size, seed and generator, building it on a miss.
+  // The grid is a copy, so changing it does not change the cache.
+  public MazeGrid maze(MazeSpec spec) {
+    Key key = new Key(false,
+        new MazeSpec(spec.width, spec.height, spec.seed, spec.generator, null));
+    Entry entry = this.get(key, () -> {
+      MazeGrid grid = MazeGenerator.of(spec.generator).generate(spec.width, spec.height,
+          spec.seed);
+      long[] words = new long[grid.words()];
+      for (int i = 0; i < words.length; i++) {
+        words[i] = grid.wallWord(i);
+      }
+      return new Entry(words, 0, 0, 0);
+    });
+    MazeGrid grid = new MazeGrid(spec.width, spec.height, true);
+    System.arraycopy(entry.data, 0, grid.walls, 0, entry.data.length);
+    return grid;
+  }
+
+  // Returns the solution of the spec's maze from its top left to its bottom right cell
+  // with the spec's solver, building the maze and the solution as needed
+  public Solution solution(MazeSpec spec) {
+    if (spec.solver == null) {
+      throw new IllegalArgumentException("A solution needs a solver, was null");
+    }
+    Entry entry = this.get(new Key(true, spec), () -> {
+      MazeGrid grid = this.maze(spec);
+      Solution solution = MazeSolver.of(spec.solver).solve(grid, 0, grid.size() - 1);
+      return new Entry(MazeCache.encode(grid.width, solution.path), solution.path.length,
+          solution.expanded, solution.frontier);
+    });
+    return new Solution(MazeCache.decode(spec.width, entry.data, entry.length), entry.expanded,
+        entry.frontier);
+  }
+
+  // Returns what the cache has done so far
+  public synchronized CacheStats stats() {
+    return new CacheStats(this.hits, this.misses, this.coalesced, this.evictions,
+        this.entries.size(), this.bytes);
+  }
+
+  // Returns the entry for the key, building it on this thread if no other thread is
+  // already building it, and waiting for that thread if one is
+  Entry get(Key key, Builder builder) {
+    CompletableFuture<Entry> pending;
+    boolean mine = false;
+    synchronized (this) {
+      Entry entry = this.entries.get(key);
+      if (entry != null) {
+        this.hits++;
+        return entry;
+      }
+      pending = this.building.get(key);
+      if (pending == null) {
+        pending = new CompletableFuture<>();
+        this.building.put(key, pending);
+        this.misses++;
+        mine = true;
+      }
+      else {
+        this.coalesced++;
+      }
+    }
+    if (!mine) {
+      try {
+        return pending.join();
+      }
+      catch (CompletionException e) {
+        throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+      }
+    }
+    Entry entry;
+    try {
+      entry = builder.build();
+    }
+    catch (RuntimeException | Error e) {
+      synchronized (this) {
+        this.building.remove(key);
+      }
+      pending.completeExceptionally(e);
+      throw e;
+    }
+    synchronized (this) {
+      this.building.remove(key);
+      if (entry.bytes() <= this.maxBytes) {
+        this.entries.put(key, entry);
+        this.bytes += entry.bytes();
+        Iterator<Entry> eldest = this.entries.values().iterator();
+        while (this.bytes > this.maxBytes) {
+          this.bytes -= eldest.next().bytes();
+          eldest.remove();
+          this.evictions++;
+        }
+      }
+    }
+    pending.complete(entry);
+    return entry;
+  }
+
+  // Packs a path as its first cell followed by two bits per step: 0 right, 1 down,
+  // 2 left and 3 up
+  static long[] encode(int width, int[] path) {
+    long[] data = new long[1 + ((2 * Math.max(path.length - 1, 0) + 63) >>> 6)];
+    if (path.length == 0) {
+      return data;
+    }
+    data[0] = path[0];
+    for (int i = 1; i < path.length; i++) {
+      int step = path[i] - path[i - 1];
+      long direction = step == 1 ? 0 : step == width ? 1 : step == -1 ? 2 : 3;
+      int bit = 2 * (i - 1);
+      data[1 + (bit >>> 6)] |= direction << bit;
+    }
+    return data;
+  }
+
+  // Unpacks a path of the given length packed by encode
+  static int[] decode(int width, long[] data, int length) {
+    int[] path = new int[length];
+    if (length == 0) {
+      return path;
+    }
+    path[0] = (int) data[0];
+    int[] steps = { 1, width, -1, -width };
+    for (int i = 1; i < length; i++) {
+      int bit = 2 * (i - 1);
+      path[i] = path[i - 1] + steps[(int) (data[1 + (bit >>> 6)] >>> bit) & 3];
+    }
+    return path;
+  }
+}
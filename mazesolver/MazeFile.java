@@ -0,0 +1,146 @@
+package mazesolver;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Represents the header of a maze file. A maze file is a 64 byte header followed by the
+// rows of the maze laid out as in MazeGrid, all little-endian:
+//   magic "MAZE" (int), version (int), width (int), unused (int), height (long),
+//   seed (long), name of the generator (32 bytes of ASCII padded with zeros)
+public class MazeFile {
+  static final int MAGIC = 0x4D415A45;
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 64;
+  static final int NAME_BYTES = 32;
+  public final int width;
+  public final long height;
+  public final long seed;
+  public final String algorithm;
+
+  public MazeFile(int width, long height, long seed, String algorithm) {
+    if (algorithm.length() > NAME_BYTES) {
+      throw new IllegalArgumentException("Algorithm name is longer than " + NAME_BYTES
+          + " characters: " + algorithm);
+    }
+    this.width = width;
+    this.height = height;
+    this.seed = seed;
+    this.algorithm = algorithm;
+  }
+
+  // Returns the number of bytes in every row
+  long rowBytes() {
+    return 16L * ((this.width + 63) >>> 6);
+  }
+
+  // Returns the size of a file holding this maze
+  long fileBytes() {
+    return HEADER_BYTES + this.height * this.rowBytes();
+  }
+
+  // Writes this header at the start of the channel
+  void write(FileChannel channel) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(MAGIC).putInt(VERSION).putInt(this.width).putInt(0);
+    buffer.putLong(this.height).putLong(this.seed);
+    buffer.put(this.algorithm.getBytes(StandardCharsets.US_ASCII));
+    buffer.clear();
+    channel.position(0);
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  // Reads the header of the maze file on the channel
+  static MazeFile read(FileChannel channel, Path path) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    int read = 0;
+    while (buffer.hasRemaining() && read >= 0) {
+      read = channel.read(buffer, buffer.position());
+    }
+    buffer.flip();
+    if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+      throw new IOException("Not a maze file: " + path);
+    }
+    int version = buffer.getInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported maze file version " + version + ": " + path);
+    }
+    int width = buffer.getInt();
+    buffer.getInt();
+    long height = buffer.getLong();
+    long seed = buffer.getLong();
+    byte[] name = new byte[NAME_BYTES];
+    buffer.get(name);
+    int length = 0;
+    while (length < NAME_BYTES && name[length] != 0) {
+      length++;
+    }
+    MazeFile header = new MazeFile(width, height, seed,
+        new String(name, 0, length, StandardCharsets.US_ASCII));
+    if (width < 1 || height < 1 || channel.size() < header.fileBytes()) {
+      throw new IOException("Maze file is truncated or has a bad size: " + path);
+    }
+    return header;
+  }
+
+  // Reads the header of the maze file at path
+  public static MazeFile read(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return MazeFile.read(channel, path);
+    }
+  }
+
+  // Writes the grid to the file at path
+  public static void save(Path path, MazeGrid grid, long seed, String algorithm)
+      throws IOException {
+    MazeFile header = new MazeFile(grid.width, grid.height, seed, algorithm);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      header.write(channel);
+      ByteBuffer buffer = ByteBuffer.allocateDirect(EllerGenerator.BUFFER_BYTES)
+          .order(ByteOrder.LITTLE_ENDIAN);
+      int words = grid.words();
+      for (int i = 0; i < words; i++) {
+        if (!buffer.hasRemaining()) {
+          EllerGenerator.drain(buffer, channel);
+        }
+        buffer.putLong(grid.wallWord(i));
+      }
+      EllerGenerator.drain(buffer, channel);
+    }
+  }
+
+  // Generates a maze with Eller's algorithm straight into the file at path, keeping
+  // only one row in memory, so the maze can be far larger than the heap
+  public static StreamReport stream(Path path, int width, long height, long seed)
+      throws IOException {
+    MazeFile header = new MazeFile(width, height, seed, "eller");
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      header.write(channel);
+      return new EllerGenerator().stream(width, height, seed, channel);
+    }
+  }
+
+  // Maps the file at path and returns a grid that reads its walls straight from the
+  // mapping, so nothing is copied and pages are only read when they are touched.
+  // Knocking down walls of a writable grid changes the file.
+  public static MappedMazeGrid map(Path path, boolean writable) throws IOException {
+    StandardOpenOption[] options = writable
+        ? new StandardOpenOption[] { StandardOpenOption.READ, StandardOpenOption.WRITE }
+        : new StandardOpenOption[] { StandardOpenOption.READ };
+    try (FileChannel channel = FileChannel.open(path, options)) {
+      MazeFile header = MazeFile.read(channel, path);
+      if (header.height > Integer.MAX_VALUE) {
+        throw new IOException("Maze file is too tall to map as a grid: " + path);
+      }
+      return new MappedMazeGrid(header, channel, writable);
+    }
+  }
+}
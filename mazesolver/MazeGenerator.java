@@ -0,0 +1,63 @@
+package mazesolver;
+
+// Represents a way of turning a grid of standing walls into a perfect maze,
+// where there is exactly one path between any two cells
+public interface MazeGenerator {
+  // The names of every generator, for of
+  String[] NAMES = { "kruskal", "tiled", "eller", "backtracker", "prim", "wilson", "binary",
+      "sidewinder" };
+
+  // Steps a generator takes between two progress reports
+  int REPORT_EVERY = 1 << 16;
+
+  // Knocks down walls of a grid that has every wall standing, the same seed
+  // always gives the same maze
+  void carve(MazeGrid grid, long seed);
+
+  // Carves like carve, reporting its progress as it goes so that it can be stopped
+  // early. Generators that cannot stop part way carve the whole maze and report once.
+  default void carve(MazeGrid grid, long seed, Progress progress) {
+    this.carve(grid, seed);
+    progress.report(grid.size());
+  }
+
+  // Carves like carve with progress, taking its working arrays from the scratch.
+  // Generators that need no large arrays ignore it.
+  default void carve(MazeGrid grid, long seed, Progress progress, Scratch scratch) {
+    this.carve(grid, seed, progress);
+  }
+
+  // Returns a new maze of the given size
+  default MazeGrid generate(int width, int height, long seed) {
+    Metrics.Phase phase = Metrics.start("generate", "grid", width, height);
+    MazeGrid grid = new MazeGrid(width, height);
+    Metrics.finish(phase, grid.words(), 0);
+    this.carve(grid, seed);
+    return grid;
+  }
+
+  // Returns the generator with the given name: kruskal, tiled, eller, backtracker, prim,
+  // wilson, binary or sidewinder
+  static MazeGenerator of(String name) {
+    switch (name) {
+      case "kruskal":
+        return new KruskalGenerator();
+      case "tiled":
+        return new TiledGenerator();
+      case "eller":
+        return new EllerGenerator();
+      case "backtracker":
+        return new BacktrackerGenerator();
+      case "prim":
+        return new PrimGenerator();
+      case "wilson":
+        return new WilsonGenerator();
+      case "binary":
+        return new BinaryTreeGenerator();
+      case "sidewinder":
+        return new SidewinderGenerator();
+      default:
+        throw new IllegalArgumentException("Unknown generator: " + name);
+    }
+  }
+}
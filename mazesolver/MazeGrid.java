@@ -0,0 +1,259 @@
+package mazesolver;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+// Represents the walls of a rectangular maze as two bitsets with one bit per cell.
+// Cells are addressed by the index y * width + x. One bitset holds the wall on the right
+// side of every cell and the other the wall below it. A set bit means the wall is standing.
+// The bitsets are interleaved by row: row y is stride words of right walls followed by
+// stride words of bottom walls, which is also the layout of rows in a maze file.
+public class MazeGrid implements CellGraph {
+  static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+  public final int width;
+  public final int height;
+  // The number of words holding each row of one bitset
+  public final int stride;
+  final long[] walls;
+
+  // Creates a grid of the given size with every wall standing
+  public MazeGrid(int width, int height) {
+    this(width, height, true);
+    Arrays.fill(this.walls, -1L);
+  }
+
+  // Checks the size of the grid, and allocates the words if asked to
+  MazeGrid(int width, int height, boolean allocate) {
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException("Maze must be at least 1x1, was " + width + "x" + height);
+    }
+    if ((long) width * height > Integer.MAX_VALUE
+        || 2L * ((width + 63) >>> 6) * height > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Maze is too large: " + width + "x" + height);
+    }
+    this.width = width;
+    this.height = height;
+    this.stride = (width + 63) >>> 6;
+    this.walls = allocate ? new long[this.words()] : null;
+  }
+
+  // Puts every wall back up, so the grid can be carved again
+  public void reset() {
+    Arrays.fill(this.walls, -1L);
+  }
+
+  // Returns the number of cells in the grid
+  public int size() {
+    return this.width * this.height;
+  }
+
+  // Returns the most neighbours a cell can have: right, below, left and above
+  public int maxDegree() {
+    return 4;
+  }
+
+  // Returns the number of words holding both bitsets
+  int words() {
+    return 2 * this.stride * this.height;
+  }
+
+  // Returns the index of the cell at x, y
+  public int cell(int x, int y) {
+    return y * this.width + x;
+  }
+
+  // Returns the column of the given cell
+  public int x(int cell) {
+    return cell % this.width;
+  }
+
+  // Returns the row of the given cell
+  public int y(int cell) {
+    return cell / this.width;
+  }
+
+  // Returns the index of the word holding the right wall of x, y,
+  // the word holding its bottom wall is stride words later
+  int word(int x, int y) {
+    return 2 * y * this.stride + (x >>> 6);
+  }
+
+  // Returns the word at the given index
+  long wallWord(int index) {
+    return this.walls[index];
+  }
+
+  // Replaces the word at the given index
+  void setWallWord(int index, long word) {
+    this.walls[index] = word;
+  }
+
+  // Clears the given bits of the word at index
+  void clearWallBits(int index, long bits) {
+    this.walls[index] &= ~bits;
+  }
+
+  // Clears the given bits of the word at index while other threads may be changing it
+  void clearWallBitsAtomically(int index, long bits) {
+    WORDS.getAndBitwiseAnd(this.walls, index, ~bits);
+  }
+
+  // Checks if there is a wall on the right side of x, y
+  public boolean hasRightWall(int x, int y) {
+    return (this.wallWord(this.word(x, y)) & (1L << x)) != 0;
+  }
+
+  // Checks if there is a wall below x, y
+  public boolean hasBottomWall(int x, int y) {
+    return (this.wallWord(this.word(x, y) + this.stride) & (1L << x)) != 0;
+  }
+
+  // Knocks down the wall on the right side of x, y
+  public void removeRightWall(int x, int y) {
+    this.clearWallBits(this.word(x, y), 1L << x);
+  }
+
+  // Knocks down the wall below x, y
+  public void removeBottomWall(int x, int y) {
+    this.clearWallBits(this.word(x, y) + this.stride, 1L << x);
+  }
+
+  // Puts up the wall on the right side of x, y
+  public void addRightWall(int x, int y) {
+    int index = this.word(x, y);
+    this.setWallWord(index, this.wallWord(index) | (1L << x));
+  }
+
+  // Puts up the wall below x, y
+  public void addBottomWall(int x, int y) {
+    int index = this.word(x, y) + this.stride;
+    this.setWallWord(index, this.wallWord(index) | (1L << x));
+  }
+
+  // Knocks down the wall between the given cell and one of its four neighbours
+  public void open(int cell, int next) {
+    int x = cell % this.width;
+    int y = cell / this.width;
+    // rows first, in a grid one cell wide the cell below is also cell + 1
+    if (next == cell + this.width) {
+      this.removeBottomWall(x, y);
+    }
+    else if (next == cell - this.width) {
+      this.removeBottomWall(x, y - 1);
+    }
+    else if (next == cell + 1) {
+      this.removeRightWall(x, y);
+    }
+    else {
+      this.removeRightWall(x - 1, y);
+    }
+  }
+
+  // Writes the neighbours of the cell, walls or not, whose bit in marks is set when
+  // marked is true or clear when it is false into out, and returns how many there are
+  public int neighbors(int cell, long[] marks, boolean marked, int[] out) {
+    int x = cell % this.width;
+    int count = 0;
+    if (x + 1 < this.width && Solution.isMarked(marks, cell + 1) == marked) {
+      out[count++] = cell + 1;
+    }
+    if (cell + this.width < this.size() && Solution.isMarked(marks, cell + this.width) == marked) {
+      out[count++] = cell + this.width;
+    }
+    if (x > 0 && Solution.isMarked(marks, cell - 1) == marked) {
+      out[count++] = cell - 1;
+    }
+    if (cell >= this.width && Solution.isMarked(marks, cell - this.width) == marked) {
+      out[count++] = cell - this.width;
+    }
+    return count;
+  }
+
+  // Knocks down the wall on the right side of x, y while other threads may be
+  // changing walls that share its word
+  void removeRightWallAtomically(int x, int y) {
+    this.clearWallBitsAtomically(this.word(x, y), 1L << x);
+  }
+
+  // Knocks down the wall below x, y while other threads may be changing walls
+  // that share its word
+  void removeBottomWallAtomically(int x, int y) {
+    this.clearWallBitsAtomically(this.word(x, y) + this.stride, 1L << x);
+  }
+
+  // Replaces the walls of row y with the given words
+  void setRow(int y, long[] right, long[] bottom) {
+    int base = 2 * y * this.stride;
+    for (int i = 0; i < this.stride; i++) {
+      this.setWallWord(base + i, right[i]);
+      this.setWallWord(base + this.stride + i, bottom[i]);
+    }
+  }
+
+  // Knocks down every wall that is down in the given tile, placing its top left
+  // corner at x0, y0. Safe while other threads copy tiles that do not overlap.
+  void openFrom(MazeGrid tile, int x0, int y0) {
+    int shift = x0 & 63;
+    for (int y = 0; y < tile.height; y++) {
+      int base = this.word(x0, y0 + y);
+      int tileBase = 2 * y * tile.stride;
+      for (int i = 0; i < tile.stride; i++) {
+        // only bits for cells inside the tile count
+        long inside = i < tile.stride - 1 || (tile.width & 63) == 0
+            ? -1L : (1L << (tile.width & 63)) - 1;
+        this.clearShifted(base + i, shift, ~tile.wallWord(tileBase + i) & inside);
+        this.clearShifted(base + this.stride + i, shift,
+            ~tile.wallWord(tileBase + tile.stride + i) & inside);
+      }
+    }
+  }
+
+  // Clears the given bits, shifted left by shift, starting at the word at index
+  void clearShifted(int index, int shift, long open) {
+    if (open == 0) {
+      return;
+    }
+    this.clearWallBitsAtomically(index, open << shift);
+    if (shift != 0 && (open >>> (64 - shift)) != 0) {
+      this.clearWallBitsAtomically(index + 1, open >>> (64 - shift));
+    }
+  }
+
+  // Writes the cells reachable in one step from the given cell into out,
+  // and returns how many there are
+  public int openNeighbors(int cell, int[] out) {
+    int x = cell % this.width;
+    int y = cell / this.width;
+    int count = 0;
+    if (x + 1 < this.width && !this.hasRightWall(x, y)) {
+      out[count++] = cell + 1;
+    }
+    if (y + 1 < this.height && !this.hasBottomWall(x, y)) {
+      out[count++] = cell + this.width;
+    }
+    if (x > 0 && !this.hasRightWall(x - 1, y)) {
+      out[count++] = cell - 1;
+    }
+    if (y > 0 && !this.hasBottomWall(x, y - 1)) {
+      out[count++] = cell - this.width;
+    }
+    return count;
+  }
+
+  // Counts the passages between neighbouring cells
+  public int passages() {
+    int count = 0;
+    for (int y = 0; y < this.height; y++) {
+      for (int x = 0; x < this.width; x++) {
+        if (x + 1 < this.width && !this.hasRightWall(x, y)) {
+          count++;
+        }
+        if (y + 1 < this.height && !this.hasBottomWall(x, y)) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+}
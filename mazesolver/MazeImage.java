@@ -0,0 +1,374 @@
+package mazesolver;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+// Draws a maze and its solution straight from the grid into a PNG or SVG file, with the
+// same cell size and colours as the window: red walls, a grey border, a green start, a
+// pink goal and a blue path. The PNG is made a strip of pixel rows at a time, and each
+// strip is cut into tiles that are rasterised in parallel while the strip before it is
+// being compressed, so at most two strips are ever in memory whatever the size of the
+// maze. The start is the top left cell and the goal the bottom right, as in the window.
+public class MazeImage {
+  public static final int CELL = 30;
+  public static final int BACKGROUND = 0xFFFFFF;
+  public static final int WALL = 0xFF0000;
+  public static final int BORDER = 0x808080;
+  public static final int START = 0x00FF00;
+  public static final int GOAL = 0xFFAFAF;
+  public static final int PATH = 0x0000FF;
+  // Bytes of pixels rasterised at once, a strip is never smaller than one pixel row
+  static final int STRIP_BYTES = 8 << 20;
+  // Pixels below which a tile is rasterised on one thread
+  static final int TILE_PIXELS = 1 << 16;
+  // Bytes of compressed data in each IDAT chunk
+  static final int CHUNK_BYTES = 1 << 16;
+  final MazeGrid maze;
+  final int cell;
+  final ForkJoinPool pool;
+  // The path as links, bit c of right is set if the path goes from c to c + 1,
+  // bit c of down if it goes from c to c + width
+  long[] right;
+  long[] down;
+
+  public MazeImage(MazeGrid maze) {
+    this(maze, MazeImage.CELL, ForkJoinPool.commonPool());
+  }
+
+  public MazeImage(MazeGrid maze, int cell, ForkJoinPool pool) {
+    if (cell < 2) {
+      throw new IllegalArgumentException("Cells must be at least 2 pixels, was " + cell);
+    }
+    if ((long) maze.width * cell * 3 + 1 > Integer.MAX_VALUE - 8
+        || (long) maze.height * cell > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Image is too large: " + maze.width + "x" + maze.height
+          + " cells of " + cell + " pixels");
+    }
+    this.maze = maze;
+    this.cell = cell;
+    this.pool = pool;
+  }
+
+  // Draws the given path over the maze
+  public MazeImage withPath(int[] path) {
+    this.right = new long[(this.maze.size() + 63) >>> 6];
+    this.down = new long[(this.maze.size() + 63) >>> 6];
+    for (int i = 0; i + 1 < path.length; i++) {
+      int low = Math.min(path[i], path[i + 1]);
+      // rows first, in a maze one cell wide the cell below is also cell + 1
+      Solution.mark(Math.abs(path[i + 1] - path[i]) == this.maze.width ? this.down : this.right,
+          low);
+    }
+    return this;
+  }
+
+  // Returns the width of the image in pixels
+  public int pixelWidth() {
+    return this.maze.width * this.cell;
+  }
+
+  // Returns the height of the image in pixels
+  public int pixelHeight() {
+    return this.maze.height * this.cell;
+  }
+
+  // Returns the colour of the pixel at px, py as 0xRRGGBB
+  public int pixel(int px, int py) {
+    int cx = px / this.cell;
+    int cy = py / this.cell;
+    int ox = px - cx * this.cell;
+    int oy = py - cy * this.cell;
+    int c = this.maze.cell(cx, cy);
+    int middle = this.cell / 2;
+    if (this.right != null) {
+      if (oy == middle && ((ox >= middle && Solution.isMarked(this.right, c))
+          || (ox <= middle && cx > 0 && Solution.isMarked(this.right, c - 1)))) {
+        return MazeImage.PATH;
+      }
+      if (ox == middle && ((oy >= middle && Solution.isMarked(this.down, c))
+          || (oy <= middle && cy > 0 && Solution.isMarked(this.down, c - this.maze.width)))) {
+        return MazeImage.PATH;
+      }
+    }
+    // a wall covers the first pixel column or row of the cell after it, and the corner
+    // where it meets the next wall
+    if (ox == 0 && cx > 0 && (this.maze.hasRightWall(cx - 1, cy)
+        || (oy == 0 && cy > 0 && this.maze.hasRightWall(cx - 1, cy - 1)))) {
+      return MazeImage.WALL;
+    }
+    if (oy == 0 && cy > 0 && (this.maze.hasBottomWall(cx, cy - 1)
+        || (ox == 0 && cx > 0 && this.maze.hasBottomWall(cx - 1, cy - 1)))) {
+      return MazeImage.WALL;
+    }
+    if (px == 0 || py == 0 || px == this.pixelWidth() - 1 || py == this.pixelHeight() - 1) {
+      return MazeImage.BORDER;
+    }
+    if (c == 0) {
+      return MazeImage.START;
+    }
+    if (c == this.maze.size() - 1) {
+      return MazeImage.GOAL;
+    }
+    return MazeImage.BACKGROUND;
+  }
+
+  // Writes the image to a PNG file
+  public void writePng(Path path) throws IOException {
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+      this.writePng(out);
+    }
+  }
+
+  // Writes the image as a PNG, 8-bit RGB with no filtering, since flat colours compress
+  // well without it
+  public void writePng(OutputStream out) throws IOException {
+    int width = this.pixelWidth();
+    int height = this.pixelHeight();
+    int rowBytes = 1 + 3 * width;
+    int stripRows = Math.max(1, Math.min(height, MazeImage.STRIP_BYTES / rowBytes));
+    DataOutputStream data = new DataOutputStream(out);
+    data.write(new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' });
+    DataOutputStream header = new DataOutputStream(new ChunkStream(data, "IHDR", 13));
+    header.writeInt(width);
+    header.writeInt(height);
+    header.write(new byte[] { 8, 2, 0, 0, 0 });
+    header.close();
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      DeflaterOutputStream idat = new DeflaterOutputStream(
+          new ChunkStream(data, "IDAT", MazeImage.CHUNK_BYTES), deflater, MazeImage.CHUNK_BYTES);
+      byte[] current = new byte[stripRows * rowBytes];
+      byte[] next = new byte[stripRows * rowBytes];
+      ForkJoinTask<Void> drawing = this.pool.submit(new Tile(current, rowBytes, 0,
+          Math.min(stripRows, height), 0, width, 0));
+      for (int y = 0; y < height; y += stripRows) {
+        int rows = Math.min(stripRows, height - y);
+        drawing.join();
+        // rasterise the next strip while this one is compressed
+        if (y + rows < height) {
+          drawing = this.pool.submit(new Tile(next, rowBytes, 0,
+              Math.min(stripRows, height - y - rows), 0, width, y + rows));
+        }
+        idat.write(current, 0, rows * rowBytes);
+        byte[] swap = current;
+        current = next;
+        next = swap;
+      }
+      idat.close();
+    }
+    finally {
+      deflater.end();
+    }
+    new ChunkStream(data, "IEND", 0).close();
+    data.flush();
+  }
+
+  // Represents the pixel rows y0 up to y1 and columns x0 up to x1 of a strip whose
+  // first row is row top of the image
+  class Tile extends RecursiveAction {
+    final byte[] strip;
+    final int rowBytes;
+    final int y0;
+    final int y1;
+    final int x0;
+    final int x1;
+    final int top;
+
+    Tile(byte[] strip, int rowBytes, int y0, int y1, int x0, int x1, int top) {
+      this.strip = strip;
+      this.rowBytes = rowBytes;
+      this.y0 = y0;
+      this.y1 = y1;
+      this.x0 = x0;
+      this.x1 = x1;
+      this.top = top;
+    }
+
+    // Cuts the tile in half along its longer side until it is small enough to draw
+    protected void compute() {
+      int w = this.x1 - this.x0;
+      int h = this.y1 - this.y0;
+      if ((long) w * h <= MazeImage.TILE_PIXELS) {
+        this.draw();
+      }
+      else if (w >= h) {
+        int middle = (this.x0 + this.x1) >>> 1;
+        RecursiveAction.invokeAll(this.part(this.y0, this.y1, this.x0, middle),
+            this.part(this.y0, this.y1, middle, this.x1));
+      }
+      else {
+        int middle = (this.y0 + this.y1) >>> 1;
+        RecursiveAction.invokeAll(this.part(this.y0, middle, this.x0, this.x1),
+            this.part(middle, this.y1, this.x0, this.x1));
+      }
+    }
+
+    // Returns a part of this tile
+    Tile part(int y0, int y1, int x0, int x1) {
+      return new Tile(this.strip, this.rowBytes, y0, y1, x0, x1, this.top);
+    }
+
+    // Writes the filter byte and the RGB bytes of every pixel in the tile
+    void draw() {
+      for (int y = this.y0; y < this.y1; y++) {
+        int at = y * this.rowBytes;
+        if (this.x0 == 0) {
+          this.strip[at] = 0;
+        }
+        at += 1 + 3 * this.x0;
+        for (int x = this.x0; x < this.x1; x++) {
+          int rgb = MazeImage.this.pixel(x, this.top + y);
+          this.strip[at++] = (byte) (rgb >>> 16);
+          this.strip[at++] = (byte) (rgb >>> 8);
+          this.strip[at++] = (byte) rgb;
+        }
+      }
+    }
+  }
+
+  // Writes the image to an SVG file
+  public void writeSvg(Path path) throws IOException {
+    try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+      this.writeSvg(out);
+    }
+  }
+
+  // Writes the image as SVG a row at a time. Runs of bottom walls along a row are joined
+  // into one line.
+  public void writeSvg(Writer out) throws IOException {
+    Writer svg = out instanceof BufferedWriter ? out : new BufferedWriter(out);
+    int c = this.cell;
+    int width = this.pixelWidth();
+    int height = this.pixelHeight();
+    svg.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + width + "\" height=\""
+        + height + "\" viewBox=\"0 0 " + width + " " + height
+        + "\" shape-rendering=\"crispEdges\">\n");
+    svg.write(MazeImage.rect(0, 0, width, height, MazeImage.BACKGROUND));
+    svg.write(MazeImage.rect(0, 0, c, c, MazeImage.START));
+    svg.write(MazeImage.rect(width - c, height - c, c, c, MazeImage.GOAL));
+    svg.write("<rect x=\"0.5\" y=\"0.5\" width=\"" + (width - 1) + "\" height=\"" + (height - 1)
+        + "\" fill=\"none\" stroke=\"" + MazeImage.color(MazeImage.BORDER) + "\"/>\n");
+    svg.write("<path fill=\"none\" stroke=\"" + MazeImage.color(MazeImage.WALL) + "\" d=\"");
+    for (int y = 0; y < this.maze.height; y++) {
+      for (int x = 0; x + 1 < this.maze.width; x++) {
+        if (this.maze.hasRightWall(x, y)) {
+          svg.write("M" + ((x + 1) * c + 0.5) + " " + y * c + "v" + (c + 1));
+        }
+      }
+      if (y + 1 < this.maze.height) {
+        for (int x = 0; x < this.maze.width; x++) {
+          if (this.maze.hasBottomWall(x, y)) {
+            int run = x;
+            while (run + 1 < this.maze.width && this.maze.hasBottomWall(run + 1, y)) {
+              run++;
+            }
+            svg.write("M" + x * c + " " + ((y + 1) * c + 0.5) + "h" + ((run - x + 1) * c + 1));
+            x = run;
+          }
+        }
+      }
+      svg.write("\n");
+    }
+    svg.write("\"/>\n");
+    if (this.right != null) {
+      svg.write("<path fill=\"none\" stroke=\"" + MazeImage.color(MazeImage.PATH) + "\" d=\"");
+      this.writeSvgPath(svg);
+      svg.write("\"/>\n");
+    }
+    svg.write("</svg>\n");
+    svg.flush();
+  }
+
+  // Writes every step of the path as a line between two cell centres
+  void writeSvgPath(Writer svg) throws IOException {
+    int half = this.cell / 2;
+    for (int cellIndex = 0; cellIndex < this.maze.size(); cellIndex++) {
+      int x = this.maze.x(cellIndex) * this.cell + half;
+      int y = this.maze.y(cellIndex) * this.cell + half;
+      if (Solution.isMarked(this.right, cellIndex)) {
+        svg.write("M" + (x + 0.5) + " " + (y + 0.5) + "h" + this.cell);
+      }
+      if (Solution.isMarked(this.down, cellIndex)) {
+        svg.write("M" + (x + 0.5) + " " + (y + 0.5) + "v" + this.cell);
+      }
+    }
+  }
+
+  // Returns an SVG rectangle filled with the colour
+  static String rect(int x, int y, int width, int height, int rgb) {
+    return "<rect x=\"" + x + "\" y=\"" + y + "\" width=\"" + width + "\" height=\"" + height
+        + "\" fill=\"" + MazeImage.color(rgb) + "\"/>\n";
+  }
+
+  // Returns the colour as #rrggbb
+  static String color(int rgb) {
+    return String.format("#%06x", rgb);
+  }
+
+  // Collects bytes into PNG chunks of the given type, writing a chunk with its length and
+  // CRC whenever size bytes have been collected and when closed
+  static class ChunkStream extends OutputStream {
+    final DataOutputStream out;
+    final byte[] type;
+    final byte[] buffer;
+    int count;
+
+    ChunkStream(DataOutputStream out, String type, int size) {
+      this.out = out;
+      this.type = type.getBytes(StandardCharsets.US_ASCII);
+      this.buffer = new byte[size];
+    }
+
+    public void write(int b) throws IOException {
+      if (this.count == this.buffer.length) {
+        this.writeChunk();
+      }
+      this.buffer[this.count++] = (byte) b;
+    }
+
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+      while (length > 0) {
+        if (this.count == this.buffer.length) {
+          this.writeChunk();
+        }
+        int n = Math.min(length, this.buffer.length - this.count);
+        System.arraycopy(bytes, offset, this.buffer, this.count, n);
+        this.count += n;
+        offset += n;
+        length -= n;
+      }
+    }
+
+    // Writes what has been collected, or an empty chunk for types that have no data
+    public void close() throws IOException {
+      if (this.count > 0 || this.buffer.length == 0) {
+        this.writeChunk();
+      }
+    }
+
+    // Writes the length, type, collected bytes and CRC of one chunk
+    void writeChunk() throws IOException {
+      CRC32 crc = new CRC32();
+      crc.update(this.type);
+      crc.update(this.buffer, 0, this.count);
+      this.out.writeInt(this.count);
+      this.out.write(this.type);
+      this.out.write(this.buffer, 0, this.count);
+      this.out.writeInt((int) crc.getValue());
+      this.count = 0;
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package mazesolver;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Builds the next maze on a background thread while the current one is in use, so that
+// asking for a new maze only has to swap a reference. Grids that are done with are handed
+// back and carved again, and the generator's working arrays are kept from one build to
+// the next, rather than letting new ones be allocated for every maze.
+// Seeds are drawn in order on the calling thread, so the mazes are the same ones a
+// generator would have made one after the other.
+public class MazePrefetcher {
+  // Grids kept for reuse beyond the one being carved
+  static final int POOL_SIZE = 2;
+  MazeGenerator generator;
+  final int width;
+  final int height;
+  final ArrayBlockingQueue<MazeGrid> pool = new ArrayBlockingQueue<>(MazePrefetcher.POOL_SIZE);
+  // The generator's working arrays, kept between builds. A dropped build may still be
+  // using its scratch while the next one starts, which then makes its own.
+  final ArrayBlockingQueue<Scratch> scratch = new ArrayBlockingQueue<>(1);
+  // The maze being built for the next call to next
+  CompletableFuture<MazeGrid> pending;
+
+  // Starts building the first maze with the given seed
+  public MazePrefetcher(MazeGenerator generator, int width, int height, long seed) {
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException("Maze must be at least 1x1, was " + width + "x" + height);
+    }
+    this.generator = generator;
+    this.width = width;
+    this.height = height;
+    this.pending = this.build(seed);
+  }
+
+  // Returns the maze built in the background, waiting only if it is not finished yet,
+  // and starts building the following one with the given seed. The grid that was
+  // in use, if not null, is carved again later, so nothing may hold on to it. If the
+  // build failed, the following one is still started before the failure is thrown, so
+  // the next call does not throw it again.
+  public MazeGrid next(MazeGrid done, long seed) {
+    MazeGrid grid;
+    try {
+      grid = this.pending.join();
+    }
+    catch (CompletionException e) {
+      this.pending = this.build(seed);
+      throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+    }
+    if (done != null && done != grid && done.width == this.width
+        && done.height == this.height) {
+      this.pool.offer(done);
+    }
+    this.pending = this.build(seed);
+    return grid;
+  }
+
+  // Drops the maze being built and starts building one with another generator. The
+  // dropped build gives up at its next progress report and hands its grid back.
+  public void switchTo(MazeGenerator generator, long seed) {
+    this.pending.cancel(false);
+    this.generator = generator;
+    this.pending = this.build(seed);
+  }
+
+  // Returns the number of grids waiting to be carved again
+  public int pooled() {
+    return this.pool.size();
+  }
+
+  // Carves a maze on a virtual thread, into a grid from the pool if there is one. The
+  // carve stops once the future is done, and the grid goes back to the pool if it was
+  // not handed out.
+  private CompletableFuture<MazeGrid> build(long seed) {
+    MazeGenerator generator = this.generator;
+    CompletableFuture<MazeGrid> result = new CompletableFuture<>();
+    Thread.ofVirtual().name("maze-prefetch").start(() -> {
+      MazeGrid grid = this.pool.poll();
+      Scratch scratch = this.scratch.poll();
+      if (scratch == null) {
+        scratch = new Scratch();
+      }
+      try {
+        if (grid == null) {
+          grid = new MazeGrid(this.width, this.height);
+        }
+        else {
+          grid.reset();
+        }
+        generator.carve(grid, seed, AsyncMazes.checking(result, done -> { }), scratch);
+        if (!result.complete(grid)) {
+          this.pool.offer(grid);
+        }
+      }
+      catch (Throwable e) {
+        result.completeExceptionally(e);
+        if (grid != null) {
+          this.pool.offer(grid);
+        }
+      }
+      this.scratch.offer(scratch);
+    });
+    return result;
+  }
+}
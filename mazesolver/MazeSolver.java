@@ -0,0 +1,27 @@
+package mazesolver;
+
+import java.util.concurrent.ForkJoinPool;
+
+// Represents a way of finding a path between two cells of a maze
+public interface MazeSolver {
+  // Returns the path from start to goal, which is empty if the goal cannot be reached
+  Solution solve(MazeGrid maze, int start, int goal);
+
+  // Returns the solver with the given name: bfs, dfs, astar, deadend or deadend-parallel
+  static MazeSolver of(String name) {
+    switch (name) {
+      case "bfs":
+        return new BreadthFirstSolver();
+      case "dfs":
+        return new DepthFirstSolver();
+      case "astar":
+        return new AStarSolver();
+      case "deadend":
+        return new DeadEndFiller();
+      case "deadend-parallel":
+        return new DeadEndFiller(ForkJoinPool.commonPool());
+      default:
+        throw new IllegalArgumentException("Unknown solver: " + name);
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package mazesolver;
+
+import java.util.Objects;
+
+// Represents one maze to generate and solve in a batch: its size, its seed and the
+// names of the generator and solver to use
+public class MazeSpec {
+  public final int width;
+  public final int height;
+  public final long seed;
+  public final String generator;
+  public final String solver;
+
+  public MazeSpec(int width, int height, long seed, String generator, String solver) {
+    this.width = width;
+    this.height = height;
+    this.seed = seed;
+    this.generator = generator;
+    this.solver = solver;
+  }
+
+  // Uses Kruskal's algorithm and breadth first search
+  public MazeSpec(int width, int height, long seed) {
+    this(width, height, seed, "kruskal", "bfs");
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof MazeSpec)) {
+      return false;
+    }
+    MazeSpec that = (MazeSpec) other;
+    return this.width == that.width && this.height == that.height && this.seed == that.seed
+        && Objects.equals(this.generator, that.generator)
+        && Objects.equals(this.solver, that.solver);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.width, this.height, this.seed, this.generator, this.solver);
+  }
+
+  @Override
+  public String toString() {
+    return this.width + "x" + this.height + " " + this.generator + "/" + this.solver + " seed "
+        + this.seed;
+  }
+}
@@ -0,0 +1,104 @@
+package mazesolver;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+// Measures the phases of generating, solving and drawing mazes and reports them to
+// every registered listener. With no listener start returns null and finish does
+// nothing, so an instrumented phase costs a single volatile read when metrics are off.
+public final class Metrics {
+  static volatile MetricsListener[] listeners = new MetricsListener[0];
+  static final com.sun.management.ThreadMXBean THREADS = Metrics.allocationCounter();
+
+  private Metrics() {
+  }
+
+  // Starts sending phases to the given listener
+  public static synchronized void addListener(MetricsListener listener) {
+    MetricsListener[] added = Arrays.copyOf(Metrics.listeners, Metrics.listeners.length + 1);
+    added[added.length - 1] = listener;
+    Metrics.listeners = added;
+  }
+
+  // Stops sending phases to the given listener
+  public static synchronized void removeListener(MetricsListener listener) {
+    Metrics.listeners = Arrays.stream(Metrics.listeners).filter(l -> l != listener)
+        .toArray(MetricsListener[]::new);
+  }
+
+  // Checks if any listener is registered
+  public static boolean enabled() {
+    return Metrics.listeners.length > 0;
+  }
+
+  // Starts measuring a phase on the given grid, or returns null if no one is listening
+  public static Phase start(String source, String phase, MazeGrid grid) {
+    return Metrics.start(source, phase, grid.width, grid.height);
+  }
+
+  // Starts measuring a phase on a maze of any shape, which has no rows, so it is reported
+  // as one row of all its cells
+  public static Phase start(String source, String phase, TopologyMaze maze) {
+    return Metrics.start(source, phase, maze.size(), 1);
+  }
+
+  // Starts measuring a phase on a maze of the given size, or returns null if no one is
+  // listening
+  public static Phase start(String source, String phase, int width, int height) {
+    if (Metrics.listeners.length == 0) {
+      return null;
+    }
+    return new Phase(source, phase, width, height, Metrics.allocatedBytes(), System.nanoTime());
+  }
+
+  // Finishes measuring a phase started with start and reports it, does nothing for null
+  public static void finish(Phase phase, long operations, long frontier) {
+    if (phase == null) {
+      return;
+    }
+    long nanos = System.nanoTime() - phase.beginNanos;
+    long allocated = Metrics.allocatedBytes();
+    long bytes = allocated < 0 || phase.beginBytes < 0 ? -1 : allocated - phase.beginBytes;
+    PhaseMetrics metrics = new PhaseMetrics(phase.source, phase.phase, phase.width, phase.height,
+        nanos, bytes, operations, frontier);
+    for (MetricsListener listener : Metrics.listeners) {
+      listener.phaseFinished(metrics);
+    }
+  }
+
+  // Returns the bytes this thread has allocated so far, or -1 if the JVM cannot tell,
+  // which includes every virtual thread
+  static long allocatedBytes() {
+    return Metrics.THREADS == null ? -1 : Metrics.THREADS.getCurrentThreadAllocatedBytes();
+  }
+
+  // Returns the HotSpot thread bean that counts allocations, if there is one
+  static com.sun.management.ThreadMXBean allocationCounter() {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (threads instanceof com.sun.management.ThreadMXBean
+        && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()) {
+      return (com.sun.management.ThreadMXBean) threads;
+    }
+    return null;
+  }
+
+  // Represents a phase that has started but not finished
+  public static final class Phase {
+    final String source;
+    final String phase;
+    final int width;
+    final int height;
+    final long beginBytes;
+    final long beginNanos;
+
+    Phase(String source, String phase, int width, int height, long beginBytes, long beginNanos) {
+      this.source = source;
+      this.phase = phase;
+      this.width = width;
+      this.height = height;
+      this.beginBytes = beginBytes;
+      this.beginNanos = beginNanos;
+    }
+  }
+}
@@ -0,0 +1,8 @@
+package mazesolver;
+
+// Represents something that wants to know what each phase cost, it is called on the
+// thread that ran the phase so it must be safe to call from several threads at once
+public interface MetricsListener {
+  // Called once each phase has finished
+  void phaseFinished(PhaseMetrics metrics);
+}
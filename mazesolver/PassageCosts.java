@@ -0,0 +1,77 @@
+package mazesolver;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Represents what it costs to walk through each passage of a maze, from 1 to 255.
+// Costs are kept in one byte per wall, numbered like the edges of KruskalGenerator:
+// 2 * cell for the wall on the right of a cell and 2 * cell + 1 for the wall below it.
+// A cost is kept even while its wall is standing, so it applies again if the wall is
+// knocked down.
+public class PassageCosts {
+  public final MazeGrid maze;
+  final byte[] costs;
+  // No passage costs less than this, which keeps the A* estimate from overshooting
+  int lowest;
+
+  // Makes every passage cost 1
+  public PassageCosts(MazeGrid maze) {
+    this.maze = maze;
+    this.costs = new byte[2 * maze.size()];
+    Arrays.fill(this.costs, (byte) 1);
+    this.lowest = 1;
+  }
+
+  // Returns costs drawn evenly from 1 up to maxCost from the seed
+  public static PassageCosts random(MazeGrid maze, int maxCost, long seed) {
+    PassageCosts.check(maxCost);
+    PassageCosts terrain = new PassageCosts(maze);
+    SplittableRandom random = new SplittableRandom(seed);
+    int lowest = maxCost;
+    for (int i = 0; i < terrain.costs.length; i++) {
+      int cost = 1 + random.nextInt(maxCost);
+      terrain.costs[i] = (byte) cost;
+      lowest = Math.min(lowest, cost);
+    }
+    terrain.lowest = lowest;
+    return terrain;
+  }
+
+  // Throws if the cost does not fit in a byte or is not positive
+  static void check(int cost) {
+    if (cost < 1 || cost > 255) {
+      throw new IllegalArgumentException("Cost must be from 1 to 255, was " + cost);
+    }
+  }
+
+  // Returns the cost of the passage on the right side of x, y
+  public int rightCost(int x, int y) {
+    return this.costs[2 * this.maze.cell(x, y)] & 0xFF;
+  }
+
+  // Returns the cost of the passage below x, y
+  public int bottomCost(int x, int y) {
+    return this.costs[2 * this.maze.cell(x, y) + 1] & 0xFF;
+  }
+
+  // Changes the cost of the passage on the right side of x, y
+  public void setRightCost(int x, int y, int cost) {
+    PassageCosts.check(cost);
+    this.costs[2 * this.maze.cell(x, y)] = (byte) cost;
+    this.lowest = Math.min(this.lowest, cost);
+  }
+
+  // Changes the cost of the passage below x, y
+  public void setBottomCost(int x, int y, int cost) {
+    PassageCosts.check(cost);
+    this.costs[2 * this.maze.cell(x, y) + 1] = (byte) cost;
+    this.lowest = Math.min(this.lowest, cost);
+  }
+
+  // Returns the cost of going between two neighbouring cells
+  public int between(int a, int b) {
+    int low = Math.min(a, b);
+    // rows first, in a maze one cell wide the cell below is also cell + 1
+    return this.costs[Math.abs(b - a) == this.maze.width ? 2 * low + 1 : 2 * low] & 0xFF;
+  }
+}
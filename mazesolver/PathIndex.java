@@ -0,0 +1,131 @@
+package mazesolver;
+
+// Answers path queries between any two cells of a perfect maze. A perfect maze is a
+// spanning tree, so the path between two cells is unique and goes through their lowest
+// common ancestor once the tree is rooted. The tree is rooted once at cell 0 and cut
+// into heavy paths: every cell continues the chain of the child with the most cells
+// below it. Going from any cell up to the root crosses at most log n chains, so the
+// common ancestor is found in O(log n), and the index only needs three ints per cell.
+// A maze whose cells are not all connected is a forest, and cells in different trees
+// have no path.
+public class PathIndex {
+  // The cell above each cell, or -1 for the root of each tree
+  final int[] parent;
+  // The number of passages from each cell up to the root of its tree
+  final int[] depth;
+  // The top cell of the heavy chain each cell is on
+  final int[] head;
+
+  // Roots every tree of the maze and builds its heavy chains, in O(n)
+  public PathIndex(MazeGrid maze) {
+    int n = maze.size();
+    this.parent = new int[n];
+    this.depth = new int[n];
+    this.head = new int[n];
+    int[] order = new int[n];
+    int[] neighbors = new int[4];
+    long[] visited = new long[(n + 63) >>> 6];
+    int trees = 0;
+    int tail = 0;
+    for (int root = 0; root < n; root++) {
+      if (Solution.isMarked(visited, root)) {
+        continue;
+      }
+      trees++;
+      Solution.mark(visited, root);
+      this.parent[root] = -1;
+      int front = tail;
+      order[tail++] = root;
+      while (front < tail) {
+        int cell = order[front++];
+        int count = maze.openNeighbors(cell, neighbors);
+        for (int i = 0; i < count; i++) {
+          int next = neighbors[i];
+          if (!Solution.isMarked(visited, next)) {
+            Solution.mark(visited, next);
+            this.parent[next] = cell;
+            this.depth[next] = this.depth[cell] + 1;
+            order[tail++] = next;
+          }
+        }
+      }
+    }
+    if (maze.passages() != n - trees) {
+      throw new IllegalArgumentException("Maze has loops, so paths are not unique");
+    }
+    // children come after their parent in order, so walking it backwards counts the
+    // cells below each cell before its parent needs them
+    int[] below = new int[n];
+    for (int i = n - 1; i >= 0; i--) {
+      int cell = order[i];
+      below[cell]++;
+      if (this.parent[cell] >= 0) {
+        below[this.parent[cell]] += below[cell];
+      }
+    }
+    for (int i = 0; i < n; i++) {
+      int cell = order[i];
+      if (this.parent[cell] < 0) {
+        this.head[cell] = cell;
+      }
+      int heavy = -1;
+      int count = maze.openNeighbors(cell, neighbors);
+      for (int j = 0; j < count; j++) {
+        int child = neighbors[j];
+        if (child != this.parent[cell] && (heavy < 0 || below[child] > below[heavy])) {
+          heavy = child;
+        }
+      }
+      for (int j = 0; j < count; j++) {
+        int child = neighbors[j];
+        if (child != this.parent[cell]) {
+          this.head[child] = child == heavy ? this.head[cell] : child;
+        }
+      }
+    }
+  }
+
+  // Returns the deepest cell that is an ancestor of both a and b, or -1 if they are
+  // in different trees
+  public int ancestor(int a, int b) {
+    while (this.head[a] != this.head[b]) {
+      // climb from the chain whose top is deeper, the other chain can still hold the answer
+      if (this.depth[this.head[a]] < this.depth[this.head[b]]) {
+        int swap = a;
+        a = b;
+        b = swap;
+      }
+      a = this.parent[this.head[a]];
+      if (a < 0) {
+        return -1;
+      }
+    }
+    return this.depth[a] < this.depth[b] ? a : b;
+  }
+
+  // Returns the number of passages on the path between a and b, or -1 if there is none
+  public int distance(int a, int b) {
+    int top = this.ancestor(a, b);
+    return top < 0 ? -1 : this.depth[a] + this.depth[b] - 2 * this.depth[top];
+  }
+
+  // Returns the cells on the path from a to b, empty if there is none,
+  // in time proportional to its length
+  public int[] path(int a, int b) {
+    int top = this.ancestor(a, b);
+    if (top < 0) {
+      return new int[0];
+    }
+    int[] path = new int[this.depth[a] + this.depth[b] - 2 * this.depth[top] + 1];
+    int i = 0;
+    for (int cell = a; cell != top; cell = this.parent[cell]) {
+      path[i++] = cell;
+    }
+    path[i] = top;
+    int j = path.length - 1;
+    for (int cell = b; cell != top; cell = this.parent[cell]) {
+      path[j--] = cell;
+    }
+    return path;
+  }
+}
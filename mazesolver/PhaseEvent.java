@@ -0,0 +1,37 @@
+package mazesolver;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// The flight recorder event for one phase, see PhaseMetrics for what each field means
+@Name("mazesolver.Phase")
+@Label("Maze Phase")
+@Category("Maze Solver")
+@Description("One phase of generating, solving or drawing a maze")
+@StackTrace(false)
+class PhaseEvent extends Event {
+  @Label("Source")
+  String source;
+  @Label("Phase")
+  String phase;
+  @Label("Width")
+  int width;
+  @Label("Height")
+  int height;
+  @Label("Time")
+  @Timespan(Timespan.NANOSECONDS)
+  long nanos;
+  @Label("Allocated")
+  @DataAmount
+  long bytes;
+  @Label("Operations")
+  long operations;
+  @Label("Largest Frontier")
+  long frontier;
+}
@@ -0,0 +1,39 @@
+package mazesolver;
+
+// Represents what one phase of generating, solving or drawing a maze cost: how long it
+// took, how many bytes the thread allocated, how much work it did and how large its
+// frontier grew. What counts as an operation depends on the phase: edges created or
+// weighed, edges sorted, edges tried by the union-find, or cells expanded by a solver.
+public class PhaseMetrics {
+  // The generator, solver or view that ran the phase, such as kruskal or bfs
+  public final String source;
+  // The name of the phase, such as edges, sort, cycles or solve
+  public final String phase;
+  public final int width;
+  public final int height;
+  public final long nanos;
+  // Bytes allocated by the thread during the phase, or -1 if the JVM cannot tell
+  public final long bytes;
+  public final long operations;
+  // The most cells waiting on the frontier at once, or 0 for phases without one
+  public final long frontier;
+
+  public PhaseMetrics(String source, String phase, int width, int height, long nanos, long bytes,
+      long operations, long frontier) {
+    this.source = source;
+    this.phase = phase;
+    this.width = width;
+    this.height = height;
+    this.nanos = nanos;
+    this.bytes = bytes;
+    this.operations = operations;
+    this.frontier = frontier;
+  }
+
+  @Override
+  public String toString() {
+    return this.source + " " + this.phase + " " + this.width + "x" + this.height + ": "
+        + this.nanos / 1000 + " us, " + this.bytes + " bytes, " + this.operations
+        + " operations, frontier " + this.frontier;
+  }
+}
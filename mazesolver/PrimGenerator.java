@@ -0,0 +1,73 @@
+package mazesolver;
+
+import java.util.SplittableRandom;
+
+// Generates a maze with randomised Prim's algorithm: the maze grows from one cell by
+// joining a random frontier cell, one that touches the maze but is not in it yet, to a
+// random neighbour already in the maze. The frontier is an array of cells where a cell
+// is taken out by moving the last one into its place, so every step is O(1). Gives many
+// short dead ends branching off near the start.
+public class PrimGenerator implements MazeGenerator {
+  // Carves the maze into the grid
+  public void carve(MazeGrid grid, long seed) {
+    this.carve(grid, seed, Progress.NONE);
+  }
+
+  // Carves the maze, reporting the cells joined every REPORT_EVERY cells
+  public void carve(MazeGrid grid, long seed, Progress progress) {
+    Metrics.Phase phase = Metrics.start("prim", "carve", grid);
+    Metrics.finish(phase, grid.size(), this.join(grid, seed, progress));
+    progress.report(grid.size());
+  }
+
+  // Carves a maze on any topology the same way
+  public void carve(TopologyMaze maze, long seed) {
+    Metrics.Phase phase = Metrics.start("prim", "carve", maze);
+    Metrics.finish(phase, maze.size(), this.join(maze, seed, Progress.NONE));
+  }
+
+  // Grows the maze from a random cell until every cell has joined it, and returns the
+  // largest the frontier got
+  int join(CellGraph grid, long seed, Progress progress) {
+    SplittableRandom random = new SplittableRandom(seed);
+    int n = grid.size();
+    long[] inMaze = new long[(n + 63) >>> 6];
+    long[] queued = new long[(n + 63) >>> 6];
+    // every cell joins the frontier at most once
+    int[] frontier = new int[n];
+    int[] choices = new int[grid.maxDegree()];
+    int start = random.nextInt(n);
+    Solution.mark(inMaze, start);
+    int size = PrimGenerator.grow(grid, start, queued, inMaze, frontier, 0, choices);
+    int largest = size;
+    long joined = 1;
+    while (size > 0) {
+      if ((++joined & (MazeGenerator.REPORT_EVERY - 1)) == 0) {
+        progress.report(joined);
+      }
+      int index = random.nextInt(size);
+      int cell = frontier[index];
+      frontier[index] = frontier[--size];
+      int count = grid.neighbors(cell, inMaze, true, choices);
+      grid.open(cell, choices[count == 1 ? 0 : random.nextInt(count)]);
+      Solution.mark(inMaze, cell);
+      size = PrimGenerator.grow(grid, cell, queued, inMaze, frontier, size, choices);
+      largest = Math.max(largest, size);
+    }
+    return largest;
+  }
+
+  // Adds the neighbours of the cell that are neither in the maze nor on the frontier to
+  // the frontier, and returns its new size
+  static int grow(CellGraph grid, int cell, long[] queued, long[] inMaze, int[] frontier,
+      int size, int[] choices) {
+    int count = grid.neighbors(cell, inMaze, false, choices);
+    for (int i = 0; i < count; i++) {
+      if (!Solution.isMarked(queued, choices[i])) {
+        Solution.mark(queued, choices[i]);
+        frontier[size++] = choices[i];
+      }
+    }
+    return size;
+  }
+}
@@ -0,0 +1,11 @@
+package mazesolver;
+
+// Represents a check that a long running job makes every so often with how much work it
+// has done so far. Throwing CancellationException from it makes the job give up.
+public interface Progress {
+  // Lets every job run to the end without reporting
+  Progress NONE = done -> { };
+
+  // Receives the work done so far, such as walls tried or cells expanded
+  void report(long done);
+}
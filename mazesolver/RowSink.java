@@ -0,0 +1,9 @@
+package mazesolver;
+
+import java.io.IOException;
+
+// Represents somewhere to put the walls of a maze one finished row at a time. The arrays
+// hold the same words as a row of MazeGrid and are reused for the next row.
+interface RowSink {
+  void row(long y, long[] right, long[] bottom) throws IOException;
+}
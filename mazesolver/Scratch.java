@@ -0,0 +1,18 @@
+package mazesolver;
+
+// Holds the working arrays a generator needs while it carves, so that carving one maze
+// after another reuses them instead of allocating them again for every maze. A scratch
+// may only be used by one carve at a time, and what is left in its arrays is garbage.
+public final class Scratch {
+  // The arrays kept, one per slot
+  final int[][] ints = new int[2][];
+
+  // Returns an array of at least the given length kept under the slot, allocating a
+  // longer one if the one kept is too short
+  int[] ints(int slot, int length) {
+    if (this.ints[slot] == null || this.ints[slot].length < length) {
+      this.ints[slot] = new int[length];
+    }
+    return this.ints[slot];
+  }
+}
@@ -0,0 +1,89 @@
+package mazesolver;
+
+// Represents a breadth or depth first search that runs a few cells at a time, so that
+// it can be drawn as it goes. The queue or stack and the visited cells are kept between
+// calls to advance, so each call costs time proportional to the cells it expands no
+// matter how large the maze is, and once the goal is found advance does nothing.
+public class SearchCursor implements SteppedSearch {
+  final MazeGrid maze;
+  final int start;
+  final int goal;
+  final boolean depthFirst;
+  // Cells waiting to be expanded, the queue is frontier[head..tail) and the stack
+  // is frontier[0..tail)
+  final int[] frontier;
+  final int[] parent;
+  final long[] visited;
+  final int[] neighbors = new int[4];
+  int head;
+  int tail;
+  int expanded;
+  int largest;
+  Solution solution;
+
+  // Starts a search from start to goal that expands cells in breadth first order,
+  // or depth first order if asked to
+  public SearchCursor(MazeGrid maze, int start, int goal, boolean depthFirst) {
+    this.maze = maze;
+    this.start = start;
+    this.goal = goal;
+    this.depthFirst = depthFirst;
+    this.frontier = new int[maze.size()];
+    this.parent = new int[maze.size()];
+    this.visited = new long[(maze.size() + 63) >>> 6];
+    this.frontier[this.tail++] = start;
+    this.parent[start] = start;
+    Solution.mark(this.visited, start);
+    this.largest = 1;
+  }
+
+  // Checks if the search has found the goal or run out of cells
+  public boolean finished() {
+    return this.solution != null;
+  }
+
+  // Returns how many cells have been expanded so far
+  public int expanded() {
+    return this.expanded;
+  }
+
+  // Returns the path once the search has finished, or null before then
+  public Solution solution() {
+    return this.solution;
+  }
+
+  // Expands up to steps cells, writing each into expandedCells unless it is null, and
+  // returns how many it expanded
+  public int advance(int steps, int[] expandedCells) {
+    int count = 0;
+    while (count < steps && this.solution == null) {
+      if (this.head == this.tail) {
+        this.solution = Solution.unreachable(this.expanded, this.largest);
+        break;
+      }
+      int cell = this.depthFirst ? this.frontier[--this.tail] : this.frontier[this.head++];
+      this.expanded++;
+      if (expandedCells != null) {
+        expandedCells[count] = cell;
+      }
+      count++;
+      if (cell == this.goal) {
+        this.solution = Solution.fromParents(this.parent, this.start, this.goal, this.expanded,
+            this.largest);
+        break;
+      }
+      int found = this.maze.openNeighbors(cell, this.neighbors);
+      // pushed in reverse for depth first so that right and down are tried first
+      for (int i = 0; i < found; i++) {
+        int next = this.neighbors[this.depthFirst ? found - 1 - i : i];
+        if (!Solution.isMarked(this.visited, next)) {
+          Solution.mark(this.visited, next);
+          this.parent[next] = cell;
+          this.frontier[this.tail++] = next;
+        }
+      }
+      this.largest = Math.max(this.largest, this.tail - this.head);
+    }
+    return count;
+  }
+}
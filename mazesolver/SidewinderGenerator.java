@@ -0,0 +1,42 @@
+package mazesolver;
+
+import java.util.SplittableRandom;
+
+// Generates a maze with the sidewinder algorithm, one row at a time: a coin flip decides
+// whether each cell extends the current run to the right or closes it, and a closed run
+// opens the bottom wall of one of its cells at random. The last row is one long run.
+// Every run leads down to the next row, so the result is a tree, and only the start of
+// the current run has to be remembered.
+public class SidewinderGenerator implements MazeGenerator {
+  // Carves the maze into the grid
+  public void carve(MazeGrid grid, long seed) {
+    this.carve(grid, seed, Progress.NONE);
+  }
+
+  // Carves the maze, reporting the cells carved after every row
+  public void carve(MazeGrid grid, long seed, Progress progress) {
+    Metrics.Phase phase = Metrics.start("sidewinder", "carve", grid);
+    SplittableRandom random = new SplittableRandom(seed);
+    int runs = 0;
+    for (int y = 0; y < grid.height; y++) {
+      boolean lastRow = y == grid.height - 1;
+      int runStart = 0;
+      long coins = 0;
+      for (int x = 0; x < grid.width; x++) {
+        if ((x & 63) == 0) {
+          coins = random.nextLong();
+        }
+        if (x + 1 < grid.width && (lastRow || (coins & (1L << x)) != 0)) {
+          grid.removeRightWall(x, y);
+        }
+        else if (!lastRow) {
+          grid.removeBottomWall(runStart + random.nextInt(x - runStart + 1), y);
+          runStart = x + 1;
+          runs++;
+        }
+      }
+      progress.report((y + 1L) * grid.width);
+    }
+    Metrics.finish(phase, runs, 0);
+  }
+}
@@ -0,0 +1,57 @@
+package mazesolver;
+
+// Represents the result of solving a maze
+public class Solution {
+  // The cells from the start to the goal, empty if the goal cannot be reached
+  public final int[] path;
+  // The number of cells taken off the frontier while searching
+  public final int expanded;
+  // The most cells waiting on the frontier at once while searching
+  public final int frontier;
+
+  public Solution(int[] path, int expanded, int frontier) {
+    this.path = path;
+    this.expanded = expanded;
+    this.frontier = frontier;
+  }
+
+  public Solution(int[] path, int expanded) {
+    this(path, expanded, 0);
+  }
+
+  // Builds the path to goal by following parent links back to start
+  static Solution fromParents(int[] parent, int start, int goal, int expanded, int frontier) {
+    int length = 1;
+    for (int cell = goal; cell != start; cell = parent[cell]) {
+      length++;
+    }
+    int[] path = new int[length];
+    int cell = goal;
+    for (int i = length - 1; i >= 0; i--) {
+      path[i] = cell;
+      cell = parent[cell];
+    }
+    return new Solution(path, expanded, frontier);
+  }
+
+  // Returns the solution for a goal that cannot be reached
+  static Solution unreachable(int expanded, int frontier) {
+    return new Solution(new int[0], expanded, frontier);
+  }
+
+  // Reports the solve phase of a solution to the metrics listeners
+  static Solution finish(Metrics.Phase phase, Solution solution) {
+    Metrics.finish(phase, solution.expanded, solution.frontier);
+    return solution;
+  }
+
+  // Checks if the given cell has been marked in the bitset
+  static boolean isMarked(long[] bits, int cell) {
+    return (bits[cell >>> 6] & (1L << cell)) != 0;
+  }
+
+  // Marks the given cell in the bitset
+  static void mark(long[] bits, int cell) {
+    bits[cell >>> 6] |= 1L << cell;
+  }
+}
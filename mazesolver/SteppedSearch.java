@@ -0,0 +1,18 @@
+package mazesolver;
+
+// Represents a search that expands a few cells at a time and picks up where it left off,
+// so that it can be drawn as it goes or stopped part way
+public interface SteppedSearch {
+  // Checks if the search has found the goal or run out of cells
+  boolean finished();
+
+  // Returns how many cells have been expanded so far
+  int expanded();
+
+  // Returns the path once the search has finished, or null before then
+  Solution solution();
+
+  // Expands up to steps cells, writing each into expandedCells unless it is null, and
+  // returns how many it expanded
+  int advance(int steps, int[] expandedCells);
+}
@@ -0,0 +1,25 @@
+package mazesolver;
+
+// Represents how much a streaming generator wrote and how long it took
+public class StreamReport {
+  public final long rows;
+  public final long bytes;
+  public final long nanos;
+
+  public StreamReport(long rows, long bytes, long nanos) {
+    this.rows = rows;
+    this.bytes = bytes;
+    this.nanos = nanos;
+  }
+
+  // Returns the number of rows finished per second
+  public double rowsPerSecond() {
+    return this.nanos == 0 ? 0 : this.rows * 1e9 / this.nanos;
+  }
+
+  @Override
+  public String toString() {
+    return this.rows + " rows, " + this.bytes + " bytes in " + this.nanos / 1000000 + " ms ("
+        + Math.round(this.rowsPerSecond()) + " rows/s)";
+  }
+}
@@ -0,0 +1,112 @@
+package mazesolver;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Generates a maze on several cores. The grid is cut in half again and again until
+// there is one region per tile, each tile is carved on its own with Kruskal's
+// algorithm, and the two halves of every cut are joined by knocking down one wall
+// across it. A tree joined to a tree by one passage is still a tree, so the result
+// is a perfect maze. The maze only depends on the seed and the number of tiles.
+public class TiledGenerator implements MazeGenerator {
+  final int tiles;
+  final ForkJoinPool pool;
+  final KruskalGenerator kruskal;
+
+  public TiledGenerator() {
+    this(64, ForkJoinPool.commonPool());
+  }
+
+  public TiledGenerator(int tiles, ForkJoinPool pool) {
+    if (tiles < 1) {
+      throw new IllegalArgumentException("There must be at least one tile, was " + tiles);
+    }
+    this.tiles = tiles;
+    this.pool = pool;
+    this.kruskal = new KruskalGenerator();
+  }
+
+  // Carves every tile in parallel and joins them. Each tile also reports its own
+  // Kruskal phases from the thread that carved it.
+  public void carve(MazeGrid grid, long seed) {
+    this.carve(grid, seed, Progress.NONE);
+  }
+
+  // Carves like carve, reporting the cells of the tiles finished so far whenever a tile
+  // finishes or Kruskal's algorithm reports from inside one. Reports come from the
+  // threads of the pool, several at once.
+  public void carve(MazeGrid grid, long seed, Progress progress) {
+    Metrics.Phase phase = Metrics.start("tiled", "carve", grid);
+    this.pool.invoke(new Region(grid, 0, 0, grid.width, grid.height, this.tiles, seed,
+        progress, new AtomicLong()));
+    Metrics.finish(phase, this.tiles, 0);
+  }
+
+  // Represents a rectangle of the grid to be carved into the given number of tiles
+  class Region extends RecursiveAction {
+    final MazeGrid grid;
+    final int x0;
+    final int y0;
+    final int width;
+    final int height;
+    final int tiles;
+    final long seed;
+    final Progress progress;
+    // Cells in the tiles finished so far, shared by every region of the grid
+    final AtomicLong carved;
+
+    Region(MazeGrid grid, int x0, int y0, int width, int height, int tiles, long seed,
+        Progress progress, AtomicLong carved) {
+      this.grid = grid;
+      this.x0 = x0;
+      this.y0 = y0;
+      this.width = width;
+      this.height = height;
+      this.tiles = tiles;
+      this.seed = seed;
+      this.progress = progress;
+      this.carved = carved;
+    }
+
+    // Carves the region as one tile, or cuts it along its longer side and joins the halves
+    protected void compute() {
+      if (this.tiles == 1 || this.width * this.height == 1) {
+        MazeGrid tile = new MazeGrid(this.width, this.height);
+        TiledGenerator.this.kruskal.carve(tile, this.seed,
+            done -> this.progress.report(this.carved.get()));
+        this.grid.openFrom(tile, this.x0, this.y0);
+        this.progress.report(this.carved.addAndGet(tile.size()));
+        return;
+      }
+      // seeds are drawn before forking so that the maze does not depend on scheduling
+      SplittableRandom random = new SplittableRandom(this.seed);
+      long firstSeed = random.nextLong();
+      long secondSeed = random.nextLong();
+      int firstTiles = this.tiles / 2;
+      if (this.width >= this.height) {
+        int cut = (int) Math.max(1,
+            Math.min(this.width - 1, (long) this.width * firstTiles / this.tiles));
+        int door = this.y0 + random.nextInt(this.height);
+        invokeAll(
+            new Region(this.grid, this.x0, this.y0, cut, this.height, firstTiles, firstSeed,
+                this.progress, this.carved),
+            new Region(this.grid, this.x0 + cut, this.y0, this.width - cut, this.height,
+                this.tiles - firstTiles, secondSeed, this.progress, this.carved));
+        this.grid.removeRightWallAtomically(this.x0 + cut - 1, door);
+      }
+      else {
+        int cut = (int) Math.max(1,
+            Math.min(this.height - 1, (long) this.height * firstTiles / this.tiles));
+        int door = this.x0 + random.nextInt(this.width);
+        invokeAll(
+            new Region(this.grid, this.x0, this.y0, this.width, cut, firstTiles, firstSeed,
+                this.progress, this.carved),
+            new Region(this.grid, this.x0, this.y0 + cut, this.width, this.height - cut,
+                this.tiles - firstTiles, secondSeed, this.progress, this.carved));
+        this.grid.removeBottomWallAtomically(door, this.y0 + cut - 1);
+      }
+    }
+  }
+}
@@ -0,0 +1,170 @@
+package mazesolver;
+
+// Represents which cells of a maze are next to each other, for shapes other than the
+// rectangle MazeGrid packs into words. Neighbours are kept in compressed sparse rows:
+// the neighbours of a cell are targets[offsets[cell]] up to targets[offsets[cell + 1]],
+// and edges holds the number of the wall between them at the same place, which is the
+// same seen from either side. Each wall belongs to one of its cells, and walls are
+// numbered in order of the cells they belong to.
+public class Topology {
+  public final int size;
+  // The most neighbours any cell has
+  public final int maxDegree;
+  final int[] offsets;
+  final int[] targets;
+  final int[] edges;
+  // The two cells on either side of each wall, first is the one it belongs to
+  final int[] first;
+  final int[] second;
+
+  // Lists the walls that belong to a cell, so that every wall is listed once
+  interface Forward {
+    // Writes the neighbours across the walls that belong to cell into out and returns
+    // how many there are
+    int after(int cell, int[] out);
+  }
+
+  // Builds the rows from the walls that belong to each cell
+  Topology(int size, Forward forward) {
+    int[] out = new int[8];
+    int[] degree = new int[size + 1];
+    int count = 0;
+    for (int cell = 0; cell < size; cell++) {
+      int n = forward.after(cell, out);
+      for (int i = 0; i < n; i++) {
+        degree[cell]++;
+        degree[out[i]]++;
+      }
+      count += n;
+    }
+    this.size = size;
+    this.offsets = new int[size + 1];
+    int most = 0;
+    for (int cell = 0; cell < size; cell++) {
+      this.offsets[cell + 1] = this.offsets[cell] + degree[cell];
+      most = Math.max(most, degree[cell]);
+    }
+    this.maxDegree = most;
+    this.targets = new int[2 * count];
+    this.edges = new int[2 * count];
+    this.first = new int[count];
+    this.second = new int[count];
+    // degree is reused as the next free place in each row
+    System.arraycopy(this.offsets, 0, degree, 0, size);
+    int edge = 0;
+    for (int cell = 0; cell < size; cell++) {
+      int n = forward.after(cell, out);
+      for (int i = 0; i < n; i++) {
+        int next = out[i];
+        this.first[edge] = cell;
+        this.second[edge] = next;
+        this.targets[degree[cell]] = next;
+        this.edges[degree[cell]++] = edge;
+        this.targets[degree[next]] = cell;
+        this.edges[degree[next]++] = edge;
+        edge++;
+      }
+    }
+  }
+
+  // Returns the number of walls between neighbouring cells
+  public int edgeCount() {
+    return this.first.length;
+  }
+
+  // Returns the number of neighbours of the cell
+  public int degree(int cell) {
+    return this.offsets[cell + 1] - this.offsets[cell];
+  }
+
+  // Returns a width by height rectangle where each cell has up to four neighbours,
+  // numbered like MazeGrid
+  public static Topology rectangle(int width, int height) {
+    Topology.check(width, height, 1, 1);
+    return new Topology(width * height, (cell, out) -> {
+      int n = 0;
+      if (cell % width + 1 < width) {
+        out[n++] = cell + 1;
+      }
+      if (cell / width + 1 < height) {
+        out[n++] = cell + width;
+      }
+      return n;
+    });
+  }
+
+  // Returns a width by height grid of hexagons with pointy tops, where odd rows are
+  // shifted half a cell to the right and each cell has up to six neighbours
+  public static Topology hexagon(int width, int height) {
+    Topology.check(width, height, 1, 1);
+    return new Topology(width * height, (cell, out) -> {
+      int x = cell % width;
+      int y = cell / width;
+      int n = 0;
+      if (x + 1 < width) {
+        out[n++] = cell + 1;
+      }
+      if (y + 1 < height) {
+        // the two cells below are x - 1 and x on even rows, x and x + 1 on odd rows
+        int left = x - 1 + (y & 1);
+        if (left >= 0) {
+          out[n++] = cell + width + left - x;
+        }
+        if (left + 1 < width) {
+          out[n++] = cell + width + left + 1 - x;
+        }
+      }
+      return n;
+    });
+  }
+
+  // Returns depth layers of width by height rectangles stacked on each other, where
+  // each cell has up to six neighbours and cells are numbered layer by layer
+  public static Topology layered(int width, int height, int depth) {
+    Topology.check(width, height, 1, 1);
+    if (depth < 1 || (long) width * height * depth > Integer.MAX_VALUE / 2) {
+      throw new IllegalArgumentException("Maze is too large or empty: " + width + "x" + height
+          + "x" + depth);
+    }
+    int layer = width * height;
+    return new Topology(layer * depth, (cell, out) -> {
+      int n = 0;
+      int inLayer = cell % layer;
+      if (inLayer % width + 1 < width) {
+        out[n++] = cell + 1;
+      }
+      if (inLayer / width + 1 < height) {
+        out[n++] = cell + width;
+      }
+      if (cell / layer + 1 < depth) {
+        out[n++] = cell + layer;
+      }
+      return n;
+    });
+  }
+
+  // Returns a width by height rectangle whose edges wrap around to the other side, so
+  // every cell has four neighbours and owns the walls on its right and below it. It must
+  // be at least 3x3 so that no two cells are neighbours twice.
+  public static Topology torus(int width, int height) {
+    Topology.check(width, height, 3, 3);
+    return new Topology(width * height, (cell, out) -> {
+      int x = cell % width;
+      int y = cell / width;
+      out[0] = y * width + (x + 1) % width;
+      out[1] = ((y + 1) % height) * width + x;
+      return 2;
+    });
+  }
+
+  // Throws if the size is below the minimum or has too many walls to number
+  static void check(int width, int height, int minWidth, int minHeight) {
+    if (width < minWidth || height < minHeight) {
+      throw new IllegalArgumentException("Maze must be at least " + minWidth + "x" + minHeight
+          + ", was " + width + "x" + height);
+    }
+    if ((long) width * height > Integer.MAX_VALUE / 4) {
+      throw new IllegalArgumentException("Maze is too large: " + width + "x" + height);
+    }
+  }
+}
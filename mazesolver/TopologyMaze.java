@@ -0,0 +1,90 @@
+package mazesolver;
+
+import java.util.Arrays;
+
+// Represents a maze on any Topology, with one bit per wall that is set while the wall
+// is standing. Neighbours are found by walking the topology's flat rows, so every shape
+// is searched the same way.
+public class TopologyMaze implements CellGraph {
+  public final Topology topology;
+  final long[] walls;
+
+  // Creates a maze with every wall standing
+  public TopologyMaze(Topology topology) {
+    this.topology = topology;
+    this.walls = new long[(topology.edgeCount() + 63) >>> 6];
+    Arrays.fill(this.walls, -1L);
+  }
+
+  // Returns the number of cells
+  public int size() {
+    return this.topology.size;
+  }
+
+  // Returns the most neighbours a cell of the topology has
+  public int maxDegree() {
+    return this.topology.maxDegree;
+  }
+
+  // Checks if the wall with the given number is standing
+  public boolean hasWall(int edge) {
+    return Solution.isMarked(this.walls, edge);
+  }
+
+  // Knocks down the wall with the given number
+  public void removeWall(int edge) {
+    this.walls[edge >>> 6] &= ~(1L << edge);
+  }
+
+  // Puts up the wall with the given number
+  public void addWall(int edge) {
+    Solution.mark(this.walls, edge);
+  }
+
+  // Writes the cells reachable in one step from the given cell into out, which must
+  // have room for maxDegree cells, and returns how many there are
+  public int openNeighbors(int cell, int[] out) {
+    int count = 0;
+    for (int i = this.topology.offsets[cell]; i < this.topology.offsets[cell + 1]; i++) {
+      if (!this.hasWall(this.topology.edges[i])) {
+        out[count++] = this.topology.targets[i];
+      }
+    }
+    return count;
+  }
+
+  // Writes the neighbours of the cell, walls or not, whose bit in marks is set when
+  // marked is true or clear when it is false into out, and returns how many there are
+  public int neighbors(int cell, long[] marks, boolean marked, int[] out) {
+    int count = 0;
+    for (int i = this.topology.offsets[cell]; i < this.topology.offsets[cell + 1]; i++) {
+      if (Solution.isMarked(marks, this.topology.targets[i]) == marked) {
+        out[count++] = this.topology.targets[i];
+      }
+    }
+    return count;
+  }
+
+  // Knocks down the wall between the given cell and one of its neighbours
+  public void open(int cell, int next) {
+    for (int i = this.topology.offsets[cell]; i < this.topology.offsets[cell + 1]; i++) {
+      if (this.topology.targets[i] == next) {
+        this.removeWall(this.topology.edges[i]);
+        return;
+      }
+    }
+    throw new IllegalArgumentException("Cells " + cell + " and " + next
+        + " are not neighbours");
+  }
+
+  // Counts the passages between neighbouring cells
+  public int passages() {
+    int count = 0;
+    for (int edge = 0; edge < this.topology.edgeCount(); edge++) {
+      if (!this.hasWall(edge)) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,68 @@
+package mazesolver;
+
+import java.util.Arrays;
+
+// Represents disjoint sets of vertex indices, used to find cycles in Kruskal's algorithm.
+// A vertex holds its parent, or -1 - rank if it is the representative of its set, so
+// a union reads the ranks from the same cache lines as the roots.
+public class UnionFind {
+  final int[] parent;
+  // The number of disjoint sets left
+  int count;
+
+  public UnionFind(int size) {
+    this(new int[size], size);
+  }
+
+  // Uses the first size slots of the given array, which may hold anything, for the parents
+  UnionFind(int[] parent, int size) {
+    this.parent = parent;
+    this.count = size;
+    Arrays.fill(this.parent, 0, size, -1);
+  }
+
+  // Returns the representative of the set containing i, halving the path to it by
+  // pointing every other vertex on the way at its grandparent
+  public int find(int i) {
+    int next = this.parent[i];
+    while (next >= 0) {
+      int above = this.parent[next];
+      if (above < 0) {
+        return next;
+      }
+      this.parent[i] = above;
+      i = above;
+      next = this.parent[i];
+    }
+    return i;
+  }
+
+  // Merges the sets containing a and b, returns false if they were already the same set
+  public boolean union(int a, int b) {
+    int rootA = this.find(a);
+    int rootB = this.find(b);
+    if (rootA == rootB) {
+      return false;
+    }
+    // a higher rank is stored as a lower number
+    int rankA = this.parent[rootA];
+    int rankB = this.parent[rootB];
+    if (rankA > rankB) {
+      this.parent[rootA] = rootB;
+    }
+    else if (rankA < rankB) {
+      this.parent[rootB] = rootA;
+    }
+    else {
+      this.parent[rootB] = rootA;
+      this.parent[rootA]--;
+    }
+    this.count--;
+    return true;
+  }
+
+  // Returns the number of disjoint sets left
+  public int count() {
+    return this.count;
+  }
+}
@@ -0,0 +1,68 @@
+package mazesolver;
+
+import java.util.SplittableRandom;
+
+// Generates a maze with Wilson's algorithm: from each cell not yet in the maze, walk at
+// random until the walk hits the maze, then add the walk with its loops erased. Every
+// cell remembers only the direction it last left in, so a loop is erased simply by being
+// walked over again, and following the directions from the start of the walk traces the
+// path without loops. Every perfect maze is equally likely, unlike with the other
+// generators, but the first walks are long on a big grid.
+public class WilsonGenerator implements MazeGenerator {
+  // Carves the maze into the grid
+  public void carve(MazeGrid grid, long seed) {
+    this.carve(grid, seed, Progress.NONE);
+  }
+
+  // Carves the maze, reporting the steps walked every REPORT_EVERY steps. The first walks
+  // are the long ones, so reports come from inside a walk.
+  public void carve(MazeGrid grid, long seed, Progress progress) {
+    Metrics.Phase phase = Metrics.start("wilson", "carve", grid);
+    SplittableRandom random = new SplittableRandom(seed);
+    int n = grid.size();
+    long[] inMaze = new long[(n + 63) >>> 6];
+    // the neighbour each cell on the current walk last stepped to
+    int[] next = new int[n];
+    Solution.mark(inMaze, random.nextInt(n));
+    long steps = 0;
+    for (int start = 0; start < n; start++) {
+      if (Solution.isMarked(inMaze, start)) {
+        continue;
+      }
+      int cell = start;
+      while (!Solution.isMarked(inMaze, cell)) {
+        int step;
+        do {
+          step = WilsonGenerator.neighbor(grid, cell, random.nextInt(4));
+        } while (step < 0);
+        next[cell] = step;
+        cell = next[cell];
+        if ((++steps & (MazeGenerator.REPORT_EVERY - 1)) == 0) {
+          progress.report(steps);
+        }
+      }
+      for (cell = start; !Solution.isMarked(inMaze, cell); cell = next[cell]) {
+        Solution.mark(inMaze, cell);
+        grid.open(cell, next[cell]);
+      }
+    }
+    Metrics.finish(phase, steps, 0);
+    progress.report(steps);
+  }
+
+  // Returns the neighbour of the cell to the right, below, to the left or above for
+  // direction 0 to 3, or -1 if that is off the grid
+  static int neighbor(MazeGrid grid, int cell, int direction) {
+    int x = grid.x(cell);
+    switch (direction) {
+      case 0:
+        return x + 1 < grid.width ? cell + 1 : -1;
+      case 1:
+        return cell + grid.width < grid.size() ? cell + grid.width : -1;
+      case 2:
+        return x > 0 ? cell - 1 : -1;
+      default:
+        return cell >= grid.width ? cell - grid.width : -1;
+    }
+  }
+}